@@ -0,0 +1,92 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.request.RequestServiceApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.netty.DisposableServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of POST /api/requests over HTTP, reporting the latency distribution (p99
+ * included), with inventory-service replaced by a local server that answers every
+ * reservation after a fixed delay. By default request-service from this tree is started
+ * in-process. To compare against another build, such as one from before the inventory client
+ * was shared and made non-blocking, start that build with {@code inventory.service.url}
+ * pointing at {@code http://localhost:<inventoryPort>} and pass its base URL as
+ * {@code target}; both are then driven by the same load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(1)
+public class CreateRequestLatencyBenchmark {
+
+    /** Base URL of a request-service to load, or empty to start this tree's in-process. */
+    @Param({""})
+    public String target;
+
+    /** Port the stand-in inventory-service listens on; 0 picks a free one. */
+    @Param({"0"})
+    public int inventoryPort;
+
+    /** Time inventory-service takes to answer a reservation. */
+    @Param({"20"})
+    public int inventoryLatencyMs;
+
+    private DisposableServer inventory;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest createRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        inventory = StubInventoryServer.start(inventoryPort, inventoryLatencyMs);
+
+        String baseUrl = target;
+        if (baseUrl.isEmpty()) {
+            context = ServiceContexts.startServer(new Class<?>[] {RequestServiceApplication.class}, "request",
+                    "inventory.service.url=http://localhost:" + inventory.port(),
+                    "inventory.client.load-balanced=false",
+                    "inventory.events.enabled=false",
+                    // Benchmark defaults would let the bulkhead turn most calls away at this concurrency
+                    "resilience4j.bulkhead.instances.inventory.max-concurrent-calls=500",
+                    "resilience4j.timelimiter.instances.inventory-write.timeout-duration=5s");
+            baseUrl = "http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port");
+        }
+
+        // Not the service's own mapper, so the same body is sent to builds this tree did not start
+        String body = Jackson2ObjectMapperBuilder.json().build().writeValueAsString(Fixtures.bloodRequest());
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        createRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/api/requests"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+        inventory.disposeNow();
+    }
+
+    @Benchmark
+    public int createRequest() throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(createRequest, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("POST /api/requests answered " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,38 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.donor.DonorServiceApplication;
+import com.bloodbank.donor.model.Donor;
+import com.bloodbank.donor.service.DonorService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DonorBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private DonorService donorService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ServiceContexts.start(DonorServiceApplication.class, "donor");
+        donorService = context.getBean(DonorService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /** Duplicate-email check, age eligibility and insert, with a fresh email each call. */
+    @Benchmark
+    public Donor createDonor() {
+        return donorService.createDonor(Fixtures.donor());
+    }
+}
@@ -0,0 +1,64 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.donor.DonorServiceApplication;
+import com.bloodbank.donor.dto.ImportReport;
+import com.bloodbank.donor.service.DonorBulkService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/** Bulk CSV import of {@code rows} new donors per operation; rows/second is rows divided by the score. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DonorImportBenchmark {
+
+    private static final String[] GROUPS = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+
+    @Param("10000")
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private DonorBulkService bulkService;
+    private byte[] csv;
+    private int batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ServiceContexts.start(DonorServiceApplication.class, "donor-import");
+        bulkService = context.getBean(DonorBulkService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextFile() {
+        batch++;
+        LocalDate dateOfBirth = LocalDate.of(1985, 6, 15);
+        StringBuilder file = new StringBuilder("name,dateOfBirth,bloodGroup,phoneNumber,email,address\n");
+        for (int i = 0; i < rows; i++) {
+            file.append("Donor ").append(i).append(',')
+                    .append(dateOfBirth.plusDays(i % 5000)).append(',')
+                    .append(GROUPS[i % GROUPS.length]).append(",1234567890,")
+                    .append("donor").append(batch).append('-').append(i).append("@example.com,")
+                    .append("\"12 Main St, Springfield\"\n");
+        }
+        csv = file.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ImportReport importCsv() throws IOException {
+        return bulkService.importDonors(new ByteArrayInputStream(csv), DonorBulkService.Format.CSV);
+    }
+}
@@ -0,0 +1,83 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.donor.DonorServiceApplication;
+import com.bloodbank.donor.model.Donor;
+import com.bloodbank.donor.service.DonorIndex;
+import com.bloodbank.donor.service.DonorService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Top-N compatible donor lookups over a large, randomly generated donor table. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DonorMatchingBenchmark {
+
+    private static final String[] GROUPS = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+
+    @Param("1000000")
+    private int donors;
+
+    private ConfigurableApplicationContext context;
+    private DonorService donorService;
+    private DonorIndex donorIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ServiceContexts.start(DonorServiceApplication.class, "donor-matching");
+        donorService = context.getBean(DonorService.class);
+        donorIndex = context.getBean(DonorIndex.class);
+        seed(context.getBean(JdbcTemplate.class));
+        donorIndex.load();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> indexOnly() {
+        return donorIndex.findEligibleCompatible(randomGroup(), 20, LocalDate.now());
+    }
+
+    @Benchmark
+    public List<Donor> compatibleDonors() {
+        return donorService.getCompatibleDonors(randomGroup(), 20);
+    }
+
+    private static String randomGroup() {
+        return GROUPS[ThreadLocalRandom.current().nextInt(GROUPS.length)];
+    }
+
+    /** Ages 16 to 70 and about a third inside the donation cooldown, so lookups have to skip. */
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < donors; i++) {
+            LocalDate dateOfBirth = today.minusDays(16 * 365 + random.nextInt(54 * 365));
+            LocalDate lastDonation = random.nextInt(3) == 0 ? today.minusDays(random.nextInt(180)) : null;
+            batch.add(new Object[] {"Donor " + i, Date.valueOf(dateOfBirth), GROUPS[random.nextInt(GROUPS.length)],
+                    "1234567890", "donor" + i + "@example.com", "123 Main St",
+                    lastDonation == null ? null : Date.valueOf(lastDonation), lastDonation == null ? 0 : 1, true});
+            if (batch.size() == 10_000 || i == donors - 1) {
+                jdbcTemplate.batchUpdate("insert into donors (name, date_of_birth, blood_group, phone_number, email, "
+                        + "address, last_donation_date, donation_count, eligible) values (?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
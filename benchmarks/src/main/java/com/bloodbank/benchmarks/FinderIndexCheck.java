@@ -0,0 +1,259 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.donor.DonorServiceApplication;
+import com.bloodbank.donor.repository.DonorRepository;
+import com.bloodbank.inventory.InventoryServiceApplication;
+import com.bloodbank.inventory.model.BloodTransaction.TransactionType;
+import com.bloodbank.inventory.repository.BloodTransactionRepository;
+import com.bloodbank.request.RequestServiceApplication;
+import com.bloodbank.request.model.BloodRequest.PriorityLevel;
+import com.bloodbank.request.model.BloodRequest.RequestStatus;
+import com.bloodbank.request.repository.BloodRequestRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Seeds a million rows into each table the hot finders read, adds the indexes from each
+ * service's migrations, and checks every finder: the plan for the SQL it actually runs must
+ * use the index added for it, and its 95th percentile latency must stay within a budget.
+ * Any failure is reported together at the end and fails the run.
+ * <p>
+ * Runs on in-memory H2 as the benchmarks do. Hibernate builds the tables and only the
+ * {@code CREATE INDEX} statements of the migrations are applied, as the rest of them is
+ * MariaDB-specific. The data is shaped so each finder selects one or two percent of the
+ * table, the case its index is for. Run with {@code mvn exec:exec@finder-check} in this
+ * module, adding {@code -Dfinder.rows=<rows>} to seed a different number of rows.
+ */
+public final class FinderIndexCheck {
+
+    private static final int ROWS = 1_000_000;
+    private static final int WARMUP_RUNS = 5;
+    private static final int TIMED_RUNS = 20;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private final int rows;
+    private final List<String> failures = new ArrayList<>();
+
+    private FinderIndexCheck(int rows) {
+        this.rows = rows;
+    }
+
+    public static void main(String[] args) throws IOException {
+        FinderIndexCheck check = new FinderIndexCheck(args.length > 0 ? Integer.parseInt(args[0]) : ROWS);
+        check.requests();
+        check.transactions();
+        check.donors();
+        if (!check.failures.isEmpty()) {
+            throw new IllegalStateException(check.failures.size() + " finder check(s) failed:\n  "
+                    + String.join("\n  ", check.failures));
+        }
+        System.out.println("All finders use their index and stay within budget");
+    }
+
+    private void requests() throws IOException {
+        try (ConfigurableApplicationContext context = start(new Class<?>[] {RequestServiceApplication.class, StubInventoryClient.class},
+                "finders-request",
+                "inventory.service.url=http://inventory.invalid",
+                "inventory.events.enabled=false")) {
+            JdbcTemplate jdbc = prepare(context, RequestServiceApplication.class,
+                    // 1% pending and 1% approved, the rest closed; one request every 30 seconds over about a year
+                    "insert into blood_requests (id, patient_name, blood_group, units_required, hospital_name, contact_number,"
+                            + " request_date, required_by, priority, status)"
+                            + " select x, 'Patient ' || x, array['A+', 'A-', 'B+', 'B-', 'AB+', 'AB-', 'O+', 'O-'][mod(x / 3, 8) + 1],"
+                            + " 1 + mod(x, 4), 'Hospital ' || mod(x, 1000), '1234567890',"
+                            + " dateadd(second, x * 30, timestamp '2025-01-01 00:00:00'),"
+                            + " dateadd(second, x * 30 + 86400, timestamp '2025-01-01 00:00:00'),"
+                            + " array['EMERGENCY', 'HIGH', 'MEDIUM', 'LOW'][mod(x / 100, 4) + 1],"
+                            + " case mod(x, 100) when 0 then 'PENDING' when 1 then 'APPROVED' when 2 then 'REJECTED'"
+                            + " when 3 then 'CANCELLED' else 'FULFILLED' end"
+                            + " from system_range(1, ?)");
+            BloodRequestRepository repository = context.getBean(BloodRequestRepository.class);
+            LocalDateTime from = START.plusSeconds(rows / 2 * 30L);
+            LocalDateTime to = from.plusDays(1);
+            check(jdbc, "findByStatus", "idx_requests_status_priority_required_by", 500,
+                    () -> repository.findByStatus(RequestStatus.PENDING), "PENDING");
+            check(jdbc, "findByPriorityAndStatus", "idx_requests_status_priority_required_by", 150,
+                    () -> repository.findByPriorityAndStatus(PriorityLevel.EMERGENCY, RequestStatus.PENDING),
+                    "EMERGENCY", "PENDING");
+            check(jdbc, "countByStatusAndPriority", "idx_requests_status_priority_required_by", 50,
+                    () -> repository.countByStatusAndPriority(RequestStatus.PENDING, PriorityLevel.EMERGENCY),
+                    "PENDING", "EMERGENCY");
+            check(jdbc, "findByBloodGroupAndStatus", "idx_requests_blood_group_status", 100,
+                    () -> repository.findByBloodGroupAndStatus("AB-", RequestStatus.PENDING), "AB-", "PENDING");
+            check(jdbc, "findByRequestDateBetween", "idx_requests_request_date", 150,
+                    () -> repository.findByRequestDateBetween(from, to), from, to);
+            check(jdbc, "findByHospitalName", "idx_requests_hospital_name", 100,
+                    () -> repository.findByHospitalName("Hospital 42"), "Hospital 42");
+        }
+    }
+
+    private void transactions() throws IOException {
+        try (ConfigurableApplicationContext context = start(new Class<?>[] {InventoryServiceApplication.class},
+                "finders-inventory")) {
+            JdbcTemplate jdbc = prepare(context, InventoryServiceApplication.class,
+                    // Mostly donations and requests, 2% discards; one transaction every 30 seconds
+                    "insert into blood_transactions (id, blood_group, quantity, transaction_type, timestamp, remarks)"
+                            + " select x, array['A+', 'A-', 'B+', 'B-', 'AB+', 'AB-', 'O+', 'O-'][mod(x / 3, 8) + 1],"
+                            + " 1 + mod(x, 4), case when mod(x, 50) = 0 then 'DISCARD' when mod(x, 2) = 0 then 'REQUEST'"
+                            + " else 'DONATION' end, dateadd(second, x * 30, timestamp '2025-01-01 00:00:00'), null"
+                            + " from system_range(1, ?)");
+            BloodTransactionRepository repository = context.getBean(BloodTransactionRepository.class);
+            // Keyset pages from the middle of the history, at the default page size
+            LocalDateTime after = START.plusSeconds(rows / 2 * 30L);
+            long afterId = rows / 2;
+            LocalDateTime end = after.plusDays(1);
+            check(jdbc, "findPageAfter", "idx_transactions_timestamp_id", 50,
+                    () -> repository.findPageAfter(after, afterId, PageRequest.of(0, 100)),
+                    after, after, afterId, 100);
+            check(jdbc, "findPageByTypeAfter", "idx_transactions_type_timestamp_id", 50,
+                    () -> repository.findPageByTypeAfter(TransactionType.DISCARD, after, afterId, PageRequest.of(0, 100)),
+                    "DISCARD", after, after, afterId, 100);
+            check(jdbc, "findPageInRangeAfter", "idx_transactions_timestamp_id", 50,
+                    () -> repository.findPageInRangeAfter(after, afterId, end, PageRequest.of(0, 100)),
+                    end, after, after, afterId, 100);
+            check(jdbc, "findByTimestampBetween", "idx_transactions_timestamp_id", 150,
+                    () -> repository.findByTimestampBetween(after, end), after, end);
+        }
+    }
+
+    private void donors() throws IOException {
+        try (ConfigurableApplicationContext context = start(new Class<?>[] {DonorServiceApplication.class}, "finders-donor")) {
+            JdbcTemplate jdbc = prepare(context, DonorServiceApplication.class,
+                    // Groups roughly as common as in the population, AB- at 1%; 2% currently eligible
+                    "insert into donors (id, name, date_of_birth, blood_group, phone_number, email, address,"
+                            + " last_donation_date, donation_count, eligible)"
+                            + " select x, 'Donor ' || x, dateadd(day, -mod(x, 15000) - 6570, date '2025-01-01'),"
+                            + " case when mod(x, 100) < 1 then 'AB-' when mod(x, 100) < 3 then 'B-'"
+                            + " when mod(x, 100) < 6 then 'AB+' when mod(x, 100) < 12 then 'A-'"
+                            + " when mod(x, 100) < 19 then 'O-' when mod(x, 100) < 28 then 'B+'"
+                            + " when mod(x, 100) < 62 then 'A+' else 'O+' end,"
+                            + " '1234567890', 'donor' || x || '@example.com', '123 Main St',"
+                            + " dateadd(day, -mod(x, 90), date '2025-01-01'), mod(x, 20), mod(x / 100, 50) = 0"
+                            + " from system_range(1, ?)");
+            DonorRepository repository = context.getBean(DonorRepository.class);
+            check(jdbc, "findByBloodGroup", "idx_donors_blood_group", 500,
+                    () -> repository.findByBloodGroup("AB-"), "AB-");
+            check(jdbc, "findByEligibleTrue", "idx_donors_eligible_blood_group", 500,
+                    repository::findByEligibleTrue);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(Class<?>[] sources, String database, String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.jpa.properties.hibernate.session_factory.statement_inspector=" + LastStatement.class.getName(),
+                // The nightly donor eligibility job must not run mid-check; its startup run sees an empty table
+                "donor.eligibility.cron=-"));
+        properties.addAll(List.of(extraProperties));
+        return ServiceContexts.start(sources, database, properties.toArray(new String[0]));
+    }
+
+    /** Adds the service's migration indexes, then seeds with {@code insert} and refreshes the planner's statistics. */
+    private JdbcTemplate prepare(ConfigurableApplicationContext context, Class<?> application, String insert) throws IOException {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        for (String statement : migrationIndexes(application)) {
+            jdbc.execute(statement);
+        }
+        long started = System.nanoTime();
+        jdbc.update(insert, rows);
+        jdbc.execute("analyze");
+        System.out.printf("%s: seeded %,d rows in %,d ms%n", application.getSimpleName(), rows,
+                (System.nanoTime() - started) / 1_000_000);
+        return jdbc;
+    }
+
+    /**
+     * The {@code CREATE INDEX} statements of the migrations shipped with {@code application}.
+     * Each service has its own {@code db/migration}, so only the one in the application's
+     * own jar or classes directory is read.
+     */
+    private static List<String> migrationIndexes(Class<?> application) throws IOException {
+        URL location = application.getProtectionDomain().getCodeSource().getLocation();
+        List<String> statements = new ArrayList<>();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {location}, null)) {
+            Resource[] migrations = new PathMatchingResourcePatternResolver(classLoader)
+                    .getResources("classpath*:db/migration/*.sql");
+            Arrays.sort(migrations, Comparator.comparing(Resource::getFilename));
+            for (Resource migration : migrations) {
+                String script = StreamUtils.copyToString(migration.getInputStream(), StandardCharsets.UTF_8)
+                        .replaceAll("(?m)--.*$", "");
+                for (String statement : script.split(";")) {
+                    if (statement.strip().toUpperCase().startsWith("CREATE INDEX")) {
+                        statements.add(statement.strip());
+                    }
+                }
+            }
+        }
+        if (statements.isEmpty()) {
+            throw new IllegalStateException("No indexes found in the migrations at " + location);
+        }
+        return statements;
+    }
+
+    /**
+     * Runs {@code finder}, explains the SQL it ran with {@code parameters} bound in order,
+     * and records a failure if the plan does not use {@code index} or the 95th percentile
+     * of its timed runs is over {@code budgetMs}.
+     */
+    private void check(JdbcTemplate jdbc, String name, String index, long budgetMs, Supplier<?> finder,
+                       Object... parameters) {
+        finder.get();
+        String sql = LastStatement.SQL.get();
+        String plan = String.join(" ", jdbc.query("explain " + sql, (rs, row) -> rs.getString(1), parameters));
+        boolean indexed = plan.toUpperCase().contains("." + index.toUpperCase());
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            finder.get();
+        }
+        long[] nanos = new long[TIMED_RUNS];
+        int results = 0;
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            long started = System.nanoTime();
+            Object result = finder.get();
+            nanos[i] = System.nanoTime() - started;
+            results = result instanceof List<?> list ? list.size() : 1;
+        }
+        Arrays.sort(nanos);
+        double median = nanos[TIMED_RUNS / 2] / 1e6;
+        double p95 = nanos[(int) Math.ceil(TIMED_RUNS * 0.95) - 1] / 1e6;
+
+        System.out.printf("  %-26s %7d rows  p50 %8.2f ms  p95 %8.2f ms  budget %5d ms  %s%n",
+                name, results, median, p95, budgetMs, indexed ? index : "NO INDEX");
+        if (!indexed) {
+            failures.add(name + " does not use " + index + ": " + plan);
+        }
+        if (p95 > budgetMs) {
+            failures.add(String.format("%s took %.2f ms at p95, over its %d ms budget", name, p95, budgetMs));
+        }
+    }
+
+    /**
+     * Keeps the SQL of the last statement Hibernate prepared on each thread, so a finder's plan
+     * can be explained without picking up what scheduled jobs ran meanwhile.
+     */
+    public static class LastStatement implements StatementInspector {
+
+        static final ThreadLocal<String> SQL = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.set(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.donor.model.Donor;
+import com.bloodbank.inventory.model.BloodTransaction;
+import com.bloodbank.request.model.BloodRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class Fixtures {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private Fixtures() {
+    }
+
+    static BloodRequest bloodRequest() {
+        BloodRequest request = new BloodRequest();
+        request.setPatientName("Benchmark Patient");
+        request.setBloodGroup("A+");
+        request.setUnitsRequired(1);
+        request.setHospitalName("City Hospital");
+        request.setContactNumber("1234567890");
+        request.setPriority(BloodRequest.PriorityLevel.HIGH);
+        request.setRequiredBy(LocalDateTime.now().plusDays(1));
+        request.setRequestDate(LocalDateTime.now());
+        return request;
+    }
+
+    static Donor donor() {
+        Donor donor = new Donor();
+        donor.setName("Benchmark Donor");
+        donor.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        donor.setBloodGroup("O-");
+        donor.setPhoneNumber("1234567890");
+        donor.setEmail("donor" + SEQUENCE.incrementAndGet() + "@example.com");
+        donor.setAddress("123 Main St");
+        return donor;
+    }
+
+    static BloodTransaction transaction() {
+        BloodTransaction transaction = new BloodTransaction();
+        transaction.setId(1L);
+        transaction.setBloodGroup("B+");
+        transaction.setQuantity(2);
+        transaction.setTransactionType(BloodTransaction.TransactionType.DONATION);
+        transaction.setRemarks("Inventory updated via DONATION");
+        return transaction;
+    }
+}
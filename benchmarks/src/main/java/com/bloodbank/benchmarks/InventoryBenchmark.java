@@ -0,0 +1,58 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.inventory.InventoryServiceApplication;
+import com.bloodbank.inventory.model.BloodInventory;
+import com.bloodbank.inventory.model.BloodTransaction;
+import com.bloodbank.inventory.service.BloodInventoryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryBenchmark {
+
+    private static final String[] GROUPS = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+
+    private ConfigurableApplicationContext context;
+    private BloodInventoryService inventoryService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ServiceContexts.start(InventoryServiceApplication.class, "inventory");
+        inventoryService = context.getBean(BloodInventoryService.class);
+        for (String group : GROUPS) {
+            inventoryService.addBloodGroup(new BloodInventory(null, group, 1_000_000, null, 10));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /** A donation followed by a request of the same size, so stock stays level across iterations. */
+    @Benchmark
+    @Threads(4)
+    public BloodInventory updateInventory() {
+        String group = GROUPS[ThreadLocalRandom.current().nextInt(GROUPS.length)];
+        inventoryService.updateInventory(group, 1, BloodTransaction.TransactionType.DONATION);
+        return inventoryService.updateInventory(group, 1, BloodTransaction.TransactionType.REQUEST);
+    }
+
+    @Benchmark
+    public boolean checkAvailability() {
+        return inventoryService.checkAvailability(GROUPS[ThreadLocalRandom.current().nextInt(GROUPS.length)], 5);
+    }
+
+    @Benchmark
+    public Object checkLowInventory() {
+        return inventoryService.checkLowInventory();
+    }
+}
@@ -0,0 +1,168 @@
+package com.bloodbank.benchmarks;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.bloodbank.common.config.RepeatedEventFilter;
+import com.bloodbank.inventory.InventoryServiceApplication;
+import com.bloodbank.inventory.model.BloodInventory;
+import com.bloodbank.inventory.service.BloodInventoryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Request threads paying for log output at high request rates. The availability check is run
+ * as it used to be, with three {@code System.out}/{@code System.err} lines per call, and as it
+ * is now, with parameterized debug logging that is switched off. The same warning per request,
+ * as logged while a dependency is failing, is then written through a synchronous appender, the
+ * async appender the services use, and the async appender behind {@link RepeatedEventFilter}.
+ * Output goes to files in a temporary directory, standing in for the console.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String[] GROUPS = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%15.15t] %-40.40logger{39} : %m%n";
+
+    private ConfigurableApplicationContext context;
+    private BloodInventoryService inventoryService;
+    private PrintStream originalOut;
+    private PrintStream originalErr;
+    private Path directory;
+    private LoggerContext syncContext;
+    private LoggerContext asyncContext;
+    private LoggerContext sampledContext;
+    private Logger syncLogger;
+    private Logger asyncLogger;
+    private Logger sampledLogger;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = ServiceContexts.start(InventoryServiceApplication.class, "logging");
+        inventoryService = context.getBean(BloodInventoryService.class);
+        for (String group : GROUPS) {
+            inventoryService.addBloodGroup(new BloodInventory(null, group, 1_000_000, null, 10));
+        }
+
+        directory = Files.createTempDirectory("logging-benchmark");
+        originalOut = System.out;
+        originalErr = System.err;
+        // Autoflush on println, as the console streams do
+        PrintStream console = new PrintStream(new FileOutputStream(directory.resolve("stdout.log").toFile()), true);
+        System.setOut(console);
+        System.setErr(console);
+
+        syncContext = new LoggerContext();
+        syncLogger = logger(syncContext, fileAppender(syncContext, "sync.log"));
+
+        asyncContext = new LoggerContext();
+        asyncLogger = logger(asyncContext, asyncAppender(asyncContext, fileAppender(asyncContext, "async.log")));
+
+        sampledContext = new LoggerContext();
+        RepeatedEventFilter filter = new RepeatedEventFilter();
+        filter.setContext(sampledContext);
+        filter.start();
+        sampledContext.addTurboFilter(filter);
+        sampledLogger = logger(sampledContext, asyncAppender(sampledContext, fileAppender(sampledContext, "sampled.log")));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+        syncContext.stop();
+        asyncContext.stop();
+        sampledContext.stop();
+        context.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /** The controller and service lines the availability check printed on every call. */
+    @Benchmark
+    public boolean availabilityCheckPrinting() {
+        String group = randomGroup();
+        System.out.println("Received availability check for blood group: " + group + ", quantity: " + 5);
+        boolean available = inventoryService.checkAvailability(group, 5);
+        System.out.println("Checking availability for " + group + ": Required=" + 5 + ", Available=" + available);
+        System.out.println("Availability result: " + available);
+        return available;
+    }
+
+    @Benchmark
+    public boolean availabilityCheck() {
+        return inventoryService.checkAvailability(randomGroup(), 5);
+    }
+
+    @Benchmark
+    public void warnSync() {
+        syncLogger.warn("Inventory unavailable, deciding request from last-known stock: {}", randomGroup());
+    }
+
+    @Benchmark
+    public void warnAsync() {
+        asyncLogger.warn("Inventory unavailable, deciding request from last-known stock: {}", randomGroup());
+    }
+
+    @Benchmark
+    public void warnAsyncSampled() {
+        sampledLogger.warn("Inventory unavailable, deciding request from last-known stock: {}", randomGroup());
+    }
+
+    private static String randomGroup() {
+        return GROUPS[ThreadLocalRandom.current().nextInt(GROUPS.length)];
+    }
+
+    private static Logger logger(LoggerContext context, Appender<ILoggingEvent> appender) {
+        Logger logger = context.getLogger(LoggingBenchmark.class);
+        logger.setLevel(ch.qos.logback.classic.Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private FileAppender<ILoggingEvent> fileAppender(LoggerContext context, String file) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setFile(directory.resolve(file).toString());
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+    /** Configured as in the services' logback-spring.xml. */
+    private static AsyncAppender asyncAppender(LoggerContext context, Appender<ILoggingEvent> delegate) {
+        AsyncAppender appender = new AsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(8192);
+        appender.setNeverBlock(true);
+        appender.addAppender(delegate);
+        appender.start();
+        return appender;
+    }
+}
@@ -0,0 +1,40 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.request.RequestServiceApplication;
+import com.bloodbank.request.model.BloodRequest;
+import com.bloodbank.request.service.BloodRequestService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private BloodRequestService requestService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ServiceContexts.start(new Class<?>[] {RequestServiceApplication.class, StubInventoryClient.class},
+                "request",
+                "inventory.service.url=http://inventory.invalid",
+                "inventory.events.enabled=false");
+        requestService = context.getBean(BloodRequestService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BloodRequest createRequest() {
+        return requestService.createRequest(Fixtures.bloodRequest()).block();
+    }
+}
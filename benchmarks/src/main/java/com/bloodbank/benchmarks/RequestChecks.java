@@ -0,0 +1,118 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.request.RequestServiceApplication;
+import com.bloodbank.request.model.BloodRequest;
+import com.bloodbank.request.repository.BloodRequestRepository;
+import com.bloodbank.request.service.RequestQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.netty.DisposableServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scenario checks for request-service that have no latency to measure, each run against the
+ * real service or the class under check and reporting what it found. Any failure is reported
+ * together at the end and fails the run. Run with {@code mvn exec:exec@request-checks} in
+ * this module.
+ */
+public final class RequestChecks {
+
+    private final List<String> failures = new ArrayList<>();
+
+    private RequestChecks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        RequestChecks checks = new RequestChecks();
+        checks.forgedReservationIsIgnored();
+        checks.emergencyIsNotStarvedByDripFedStock();
+        if (!checks.failures.isEmpty()) {
+            throw new IllegalStateException(checks.failures.size() + " request check(s) failed:\n  "
+                    + String.join("\n  ", checks.failures));
+        }
+        System.out.println("All request checks passed");
+    }
+
+    /**
+     * An EMERGENCY request posted with another request's {@code reservationId} and an
+     * {@code allocatedGroup}, while inventory refuses the hold. It stays pending without a
+     * hold, so neither value may be kept: emergency processing would approve it against the
+     * other request's reservation.
+     */
+    private void forgedReservationIsIgnored() throws IOException, InterruptedException {
+        DisposableServer inventory = StubInventoryServer.refusing();
+        try (ConfigurableApplicationContext context = ServiceContexts.startServer(
+                new Class<?>[] {RequestServiceApplication.class}, "checks-request",
+                "inventory.service.url=http://localhost:" + inventory.port(),
+                "inventory.client.load-balanced=false",
+                "inventory.events.enabled=false")) {
+            BloodRequest forged = Fixtures.bloodRequest();
+            forged.setPriority(BloodRequest.PriorityLevel.EMERGENCY);
+            forged.setReservationId(4242L);
+            forged.setAllocatedGroup("O-");
+            ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:"
+                                    + context.getEnvironment().getRequiredProperty("local.server.port") + "/api/requests"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(forged)))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                failures.add("forged reservation: POST /api/requests answered " + response.statusCode());
+                return;
+            }
+            long id = mapper.readTree(response.body()).get("id").asLong();
+            BloodRequest saved = context.getBean(BloodRequestRepository.class).findById(id).orElseThrow();
+            System.out.printf("  forged reservation: saved %s with reservationId=%s, allocatedGroup=%s%n",
+                    saved.getStatus(), saved.getReservationId(), saved.getAllocatedGroup());
+            if (saved.getReservationId() != null || saved.getAllocatedGroup() != null) {
+                failures.add("forged reservation: request " + id + " was saved with reservationId="
+                        + saved.getReservationId() + ", allocatedGroup=" + saved.getAllocatedGroup());
+            }
+        } finally {
+            inventory.disposeNow();
+        }
+    }
+
+    /**
+     * An EMERGENCY request for 5 units queued ahead of LOW requests for 1 unit each, with
+     * stock arriving one unit at a time. Units the queue does not hand out stay in stock, as
+     * they do in inventory, and the emergency must get its 5 units by the fifth arrival
+     * rather than watch each unit go to a routine request.
+     */
+    private void emergencyIsNotStarvedByDripFedStock() {
+        long now = System.currentTimeMillis();
+        RequestQueue queue = new RequestQueue();
+        queue.add(new RequestQueue.Entry(1, "O-", BloodRequest.PriorityLevel.EMERGENCY.ordinal(), now + 3_600_000,
+                now, 5, "reserve-1"));
+        for (long id = 2; id <= 51; id++) {
+            queue.add(new RequestQueue.Entry(id, "O-", BloodRequest.PriorityLevel.LOW.ordinal(), Long.MAX_VALUE,
+                    now + id, 1, "reserve-" + id));
+        }
+        int stock = 0;
+        int routineServed = 0;
+        for (int arrival = 1; arrival <= 5; arrival++) {
+            stock++;
+            for (RequestQueue.Entry entry : queue.select("O-", stock, 256)) {
+                stock -= entry.units();
+                if (entry.id() == 1) {
+                    System.out.printf("  drip-fed stock: emergency served on arrival %d, after %d routine request(s)%n",
+                            arrival, routineServed);
+                    return;
+                }
+                routineServed++;
+            }
+        }
+        failures.add("drip-fed stock: emergency still unserved after 5 single-unit arrivals, "
+                + routineServed + " routine request(s) served instead");
+    }
+}
@@ -0,0 +1,72 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.request.service.RequestQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picking requests for newly arrived stock from a large pending queue, as the request
+ * scheduler does on every inventory change. The picked requests are queued again so the
+ * queue stays the same size across invocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestSchedulerBenchmark {
+
+    private static final String[] GROUPS = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+
+    @Param("100000")
+    private int pending;
+
+    /** Units arriving at once, such as a single donation or a delivered batch. */
+    @Param({"1", "50"})
+    private int arriving;
+
+    private RequestQueue queue;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        queue = new RequestQueue();
+        for (nextId = 1; nextId <= pending; nextId++) {
+            queue.add(entry(random, nextId, now));
+        }
+    }
+
+    @Benchmark
+    public int stockArrived() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<RequestQueue.Entry> picked = queue.select(GROUPS[random.nextInt(GROUPS.length)], arriving, 256);
+        for (RequestQueue.Entry entry : picked) {
+            queue.add(entry);
+        }
+        return picked.size();
+    }
+
+    @Benchmark
+    public boolean addAndRemove() {
+        Random random = ThreadLocalRandom.current();
+        long id = nextId++;
+        queue.add(entry(random, id, System.currentTimeMillis()));
+        return queue.remove(id);
+    }
+
+    /** Mostly low and medium priority, deadlines up to a week out and 1 to 6 units each. */
+    private static RequestQueue.Entry entry(Random random, long id, long now) {
+        int roll = random.nextInt(100);
+        int priority = roll < 5 ? 0 : roll < 20 ? 1 : roll < 60 ? 2 : 3;
+        long deadline = random.nextInt(4) == 0 ? Long.MAX_VALUE : now + random.nextInt(7 * 24 * 3600) * 1000L;
+        return new RequestQueue.Entry(id, GROUPS[random.nextInt(GROUPS.length)], priority, deadline,
+                now - random.nextInt(3600_000), 1 + random.nextInt(6), "request-" + id + "-reserve");
+    }
+}
@@ -0,0 +1,56 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.donor.model.Donor;
+import com.bloodbank.inventory.model.BloodTransaction;
+import com.bloodbank.request.model.BloodRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/** JSON encoding of the entities the services return, using the same mapper setup as Spring Boot. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectWriter requestWriter;
+    private ObjectWriter donorWriter;
+    private ObjectWriter transactionWriter;
+    private BloodRequest request;
+    private Donor donor;
+    private BloodTransaction transaction;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        requestWriter = objectMapper.writerFor(BloodRequest.class);
+        donorWriter = objectMapper.writerFor(Donor.class);
+        transactionWriter = objectMapper.writerFor(BloodTransaction.class);
+        request = Fixtures.bloodRequest();
+        request.setId(1L);
+        donor = Fixtures.donor();
+        donor.setId(1L);
+        transaction = Fixtures.transaction();
+    }
+
+    @Benchmark
+    public byte[] bloodRequest() throws Exception {
+        return requestWriter.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public byte[] donor() throws Exception {
+        return donorWriter.writeValueAsBytes(donor);
+    }
+
+    @Benchmark
+    public byte[] bloodTransaction() throws Exception {
+        return transactionWriter.writeValueAsBytes(transaction);
+    }
+}
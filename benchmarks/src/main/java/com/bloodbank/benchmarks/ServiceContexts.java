@@ -0,0 +1,66 @@
+package com.bloodbank.benchmarks;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts a service's Spring context against an in-memory H2 database so benchmarks run
+ * offline. Flyway is off (the migrations are MariaDB-specific) and Hibernate builds the
+ * schema instead; no web server is started unless asked for. Every service jar ships its own
+ * application.yml, so none of them is loaded and each benchmark passes what it needs.
+ */
+final class ServiceContexts {
+
+    private ServiceContexts() {
+    }
+
+    static ConfigurableApplicationContext start(Class<?> application, String database, String... extraProperties) {
+        return start(new Class<?>[] {application}, database, extraProperties);
+    }
+
+    static ConfigurableApplicationContext start(Class<?>[] sources, String database, String... extraProperties) {
+        return run(sources, WebApplicationType.NONE, database, extraProperties);
+    }
+
+    /**
+     * Like {@link #start}, but also serves HTTP on a random port, available as {@code local.server.port}.
+     * H2 runs in its own mode here: in MariaDB mode, identity inserts from many concurrent
+     * requests occasionally get the same id and fail with a primary key violation.
+     */
+    static ConfigurableApplicationContext startServer(Class<?>[] sources, String database, String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:" + database + ";NON_KEYWORDS=TIMESTAMP,VALUE;DB_CLOSE_DELAY=-1"));
+        properties.addAll(List.of(extraProperties));
+        return run(sources, WebApplicationType.SERVLET, database, properties.toArray(new String[0]));
+    }
+
+    private static ConfigurableApplicationContext run(Class<?>[] sources, WebApplicationType webApplicationType,
+                                                      String database, String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.config.name=benchmark",
+                "spring.application.name=" + database + "-service",
+                "spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=MariaDB;NON_KEYWORDS=TIMESTAMP,VALUE;DB_CLOSE_DELAY=-1",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.flyway.enabled=false",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.show-sql=false",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "spring.main.banner-mode=off",
+                "server.port=0",
+                "management.tracing.enabled=false",
+                "logging.level.root=WARN"));
+        properties.addAll(List.of(extraProperties));
+        return new SpringApplicationBuilder(sources)
+                .web(webApplicationType)
+                .properties(properties.toArray(new String[0]))
+                .run();
+    }
+}
@@ -0,0 +1,44 @@
+package com.bloodbank.benchmarks;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replaces request-service's inventory client with one that answers in-process, so
+ * request benchmarks measure request-service alone. Every reservation succeeds.
+ */
+@Configuration
+public class StubInventoryClient {
+
+    private static final AtomicLong RESERVATION_IDS = new AtomicLong();
+
+    @Bean
+    static BeanPostProcessor stubInventoryWebClient() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"inventoryWebClient".equals(beanName)) {
+                    return bean;
+                }
+                return WebClient.builder()
+                        .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.CREATED)
+                                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                .body("{\"id\":" + RESERVATION_IDS.incrementAndGet()
+                                        + ",\"bloodGroup\":\"A+\",\"quantity\":1,\"status\":\"HELD\",\"expiresAt\":\""
+                                        + LocalDateTime.now().plusDays(1) + "\"}")
+                                .build()))
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.bloodbank.benchmarks;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stands in for inventory-service over HTTP, answering every call as a successful reservation
+ * after a fixed delay, so request-service's outbound calls cost what a real network hop would.
+ */
+final class StubInventoryServer {
+
+    private static final AtomicLong RESERVATION_IDS = new AtomicLong();
+
+    private StubInventoryServer() {
+    }
+
+    /** Listens on {@code port}, or on a free port if it is 0. */
+    static DisposableServer start(int port, int latencyMs) {
+        return HttpServer.create()
+                .host("localhost")
+                .port(port)
+                .handle((request, response) -> request.receive().then()
+                        .then(Mono.delay(Duration.ofMillis(latencyMs)))
+                        .then(response.status(201)
+                                .header("Content-Type", "application/json")
+                                .sendString(Mono.fromSupplier(() -> "{\"id\":" + RESERVATION_IDS.incrementAndGet()
+                                        + ",\"bloodGroup\":\"A+\",\"quantity\":1,\"status\":\"HELD\",\"expiresAt\":\""
+                                        + LocalDateTime.now().plusDays(1) + "\"}"))
+                                .then()))
+                .bindNow();
+    }
+
+    /** Listens on a free port and refuses every reservation with 409, as when stock is short. */
+    static DisposableServer refusing() {
+        return HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .handle((request, response) -> request.receive().then()
+                        .then(response.status(409).send()))
+                .bindNow();
+    }
+}
@@ -0,0 +1,79 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.request.service.SubstitutionAllocator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Choosing a group for a single request, and for a whole synthetic backlog at once, with
+ * stock drawn so that most groups run short part way through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubstitutionAllocatorBenchmark {
+
+    // Rough share of each group in the population, indexed like SubstitutionAllocator.BLOOD_GROUPS
+    private static final int[] FREQUENCY = {34, 6, 9, 2, 3, 1, 38, 7};
+
+    @Param({"10000", "1000000"})
+    private int backlog;
+
+    private final SubstitutionAllocator allocator = new SubstitutionAllocator();
+
+    private int[] recipients;
+    private int[] units;
+    private int[] stock;
+    private int[] working;
+    private int[] assigned;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        recipients = new int[backlog];
+        units = new int[backlog];
+        int[] demand = new int[FREQUENCY.length];
+        for (int i = 0; i < backlog; i++) {
+            recipients[i] = weightedGroup(random);
+            units[i] = 1 + random.nextInt(4);
+            demand[recipients[i]] += units[i];
+        }
+        // Enough in total for about four in five units asked for, spread unevenly
+        stock = new int[FREQUENCY.length];
+        for (int group = 0; group < stock.length; group++) {
+            stock[group] = (int) (demand[group] * (0.4 + random.nextDouble()));
+        }
+        working = new int[stock.length];
+        assigned = new int[backlog];
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int single() {
+        int i = next++ % backlog;
+        return allocator.choose(recipients[i], units[i], stock);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int batch() {
+        System.arraycopy(stock, 0, working, 0, stock.length);
+        return allocator.allocate(recipients, units, backlog, working, assigned);
+    }
+
+    private static int weightedGroup(Random random) {
+        int roll = random.nextInt(100);
+        for (int group = 0; group < FREQUENCY.length; group++) {
+            roll -= FREQUENCY[group];
+            if (roll < 0) {
+                return group;
+            }
+        }
+        return FREQUENCY.length - 1;
+    }
+}
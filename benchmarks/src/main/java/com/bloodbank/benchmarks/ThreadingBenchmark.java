@@ -0,0 +1,88 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.request.RequestServiceApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.netty.DisposableServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * POST /api/requests over HTTP against request-service on platform threads and on virtual
+ * threads, with inventory-service replaced by a local server that answers every reservation
+ * after a fixed delay. Throughput and the latency distribution (p99 included) are reported
+ * side by side for each mode. To find the maximum sustained rate at a given p99, rerun with
+ * more client threads ({@code -t}) until p99 passes the target; the last throughput below it
+ * is the answer. The virtual mode needs Java 21: build the tree with {@code -Pjava21} on JDK
+ * 21 and run it with {@code mvn -Pjava21 exec:exec@threading} in this module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(1)
+public class ThreadingBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    /** Time inventory-service takes to answer a reservation. */
+    @Param({"20"})
+    public int inventoryLatencyMs;
+
+    private DisposableServer inventory;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest createRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        boolean virtual = "virtual".equals(threads);
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need Java 21, running on " + Runtime.version());
+        }
+
+        inventory = StubInventoryServer.start(0, inventoryLatencyMs);
+
+        context = ServiceContexts.startServer(new Class<?>[] {RequestServiceApplication.class}, "request",
+                "spring.threads.virtual.enabled=" + virtual,
+                "inventory.service.url=http://localhost:" + inventory.port(),
+                "inventory.client.load-balanced=false",
+                "inventory.client.max-connections=500",
+                "inventory.events.enabled=false",
+                // Benchmark defaults would let the bulkhead turn most calls away at this concurrency
+                "resilience4j.bulkhead.instances.inventory.max-concurrent-calls=500",
+                "resilience4j.timelimiter.instances.inventory-write.timeout-duration=5s");
+        int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+        String body = context.getBean(ObjectMapper.class).writeValueAsString(Fixtures.bloodRequest());
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        createRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/requests"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        inventory.disposeNow();
+    }
+
+    @Benchmark
+    public int createRequest() throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(createRequest, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("POST /api/requests answered " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
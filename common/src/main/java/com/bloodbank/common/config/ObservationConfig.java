@@ -0,0 +1,37 @@
+package com.bloodbank.common.config;
+
+import io.micrometer.observation.ObservationPredicate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Health checks and metric scrapes arrive every few seconds from every poller; they are
+ * neither traced nor timed, so they do not crowd out real traffic in sampled traces.
+ * Services register it with {@code @Import(ObservationConfig.class)}.
+ */
+@Configuration
+public class ObservationConfig {
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class Servlet {
+
+        @Bean
+        public ObservationPredicate skipActuatorRequests() {
+            return (name, context) -> !(context instanceof org.springframework.http.server.observation.ServerRequestObservationContext request
+                    && request.getCarrier().getRequestURI().startsWith("/actuator"));
+        }
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class Reactive {
+
+        @Bean
+        public ObservationPredicate skipActuatorRequests() {
+            return (name, context) -> !(context instanceof org.springframework.http.server.reactive.observation.ServerRequestObservationContext request
+                    && request.getCarrier().getPath().value().startsWith("/actuator"));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.bloodbank.common.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier, typically by blocking inside
+ * a {@code synchronized} block or a native frame. Each distinct stack is logged once and
+ * every occurrence is counted in {@code jvm.threads.virtual.pinned}. Only runs when
+ * {@code spring.threads.virtual.enabled} is in effect. Services register it with
+ * {@code @Import(PinnedThreadMonitor.class)}.
+ */
+@Component
+public class PinnedThreadMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int REPORTED_FRAMES = 8;
+
+    private final Set<String> reportedStacks = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${virtual-threads.pinned-threshold-ms:20}")
+    private long thresholdMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            return;
+        }
+        Counter pinned = meterRegistry.counter("jvm.threads.virtual.pinned");
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> {
+            pinned.increment();
+            String stack = stackOf(event);
+            if (reportedStacks.add(stack)) {
+                logger.warn("Virtual thread pinned for {} ms at\n{}", event.getDuration().toMillis(), stack);
+            }
+        });
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private static String stackOf(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "\tunknown";
+        }
+        return event.getStackTrace().getFrames().stream()
+                .limit(REPORTED_FRAMES)
+                .map(PinnedThreadMonitor::format)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String format(RecordedFrame frame) {
+        return "\t" + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,77 @@
+package com.bloodbank.common.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Samples repetitive warnings and errors, such as the same failure logged for every request
+ * while a dependency is down. Events are keyed by logger and message pattern, so a repeat with
+ * different arguments still counts. Each key may log {@code burst} times per {@code periodMs};
+ * the rest are dropped, and how many were dropped is logged when the key next gets through.
+ * Configured in logback-spring.xml.
+ */
+public class RepeatedEventFilter extends TurboFilter {
+
+    // Patterns are constants in code, so this only trips on patterns built at runtime
+    private static final int MAX_KEYS = 1000;
+
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+    private int burst = 5;
+    private long periodMs = 10_000;
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public void setPeriodMs(long periodMs) {
+        this.periodMs = periodMs;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // Runs ahead of the level check for every call, so anything below WARN leaves at once
+        if (level == null || !level.isGreaterOrEqual(Level.WARN) || format == null || !isStarted()) {
+            return FilterReply.NEUTRAL;
+        }
+        if (windows.size() > MAX_KEYS) {
+            windows.clear();
+        }
+        Window window = windows.computeIfAbsent(logger.getName() + '|' + format, key -> new Window());
+        long dropped = window.admit(System.currentTimeMillis(), burst, periodMs);
+        if (dropped < 0) {
+            return FilterReply.DENY;
+        }
+        if (dropped > 0) {
+            logger.warn("Dropped {} repeats of \"{}\" since it was last logged", dropped, format);
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    private static final class Window {
+        private long start = Long.MIN_VALUE;
+        private int admitted;
+        private long dropped;
+
+        /** Events dropped in the previous period if this one gets through, or -1 to drop it. */
+        synchronized long admit(long now, int burst, long periodMs) {
+            if (start == Long.MIN_VALUE || now - start >= periodMs) {
+                long previous = dropped;
+                start = now;
+                admitted = 1;
+                dropped = 0;
+                return previous;
+            }
+            if (admitted < burst) {
+                admitted++;
+                return 0;
+            }
+            dropped++;
+            return -1;
+        }
+    }
+}
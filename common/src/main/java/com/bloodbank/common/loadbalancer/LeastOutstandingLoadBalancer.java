@@ -0,0 +1,141 @@
+package com.bloodbank.common.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Power-of-two-choices over the healthy instances: two are sampled at random and the
+ * one with fewer requests in flight wins. Instances that fail several calls in a row
+ * are ejected for a while, longer each time it happens again, and come back on their
+ * own once the ejection runs out.
+ */
+public class LeastOutstandingLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+    private static final Logger logger = LoggerFactory.getLogger(LeastOutstandingLoadBalancer.class);
+
+    private final String serviceId;
+    private final ObjectProvider<ServiceInstanceListSupplier> suppliers;
+    private final int consecutiveFailures;
+    private final long baseEjectionMs;
+    private final long maxEjectionMs;
+    private final ConcurrentHashMap<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public LeastOutstandingLoadBalancer(String serviceId, ObjectProvider<ServiceInstanceListSupplier> suppliers,
+                                        int consecutiveFailures, long baseEjectionMs, long maxEjectionMs) {
+        this.serviceId = serviceId;
+        this.suppliers = suppliers;
+        this.consecutiveFailures = consecutiveFailures;
+        this.baseEjectionMs = baseEjectionMs;
+        this.maxEjectionMs = maxEjectionMs;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = suppliers.getIfAvailable();
+        if (supplier == null) {
+            return Mono.just(new EmptyResponse());
+        }
+        return supplier.get(request).next().map(this::select);
+    }
+
+    private Response<ServiceInstance> select(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            logger.warn("No healthy instances of {}", serviceId);
+            return new EmptyResponse();
+        }
+        long now = System.currentTimeMillis();
+        List<ServiceInstance> candidates = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            if (statsFor(instance).ejectedUntil <= now) {
+                candidates.add(instance);
+            }
+        }
+        // With every instance ejected, a possibly failing instance still beats none
+        if (candidates.isEmpty()) {
+            candidates = instances;
+        }
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return new DefaultResponse(statsFor(a).outstanding.get() <= statsFor(b).outstanding.get() ? a : b);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse.hasServer()) {
+            statsFor(lbResponse.getServer()).outstanding.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        ServiceInstance instance = lbResponse.getServer();
+        InstanceStats instanceStats = statsFor(instance);
+        instanceStats.outstanding.decrementAndGet();
+        if (completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || (completionContext.getClientResponse() instanceof ResponseData response
+                && response.getHttpStatus() != null && response.getHttpStatus().is5xxServerError());
+        if (!failed) {
+            instanceStats.failures.set(0);
+            instanceStats.ejections.set(0);
+            return;
+        }
+        if (instanceStats.failures.incrementAndGet() >= consecutiveFailures) {
+            instanceStats.failures.set(0);
+            int ejections = instanceStats.ejections.incrementAndGet();
+            long duration = Math.min(maxEjectionMs, baseEjectionMs << Math.min(ejections - 1, 16));
+            instanceStats.ejectedUntil = System.currentTimeMillis() + duration;
+            logger.warn("Ejecting {} instance {} for {} ms after {} consecutive failures",
+                    serviceId, instance.getUri(), duration, consecutiveFailures);
+        }
+    }
+
+    private InstanceStats statsFor(ServiceInstance instance) {
+        return stats.computeIfAbsent(instance.getHost() + ":" + instance.getPort(), key -> new InstanceStats());
+    }
+
+    private static final class InstanceStats {
+        final AtomicInteger outstanding = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger ejections = new AtomicInteger();
+        volatile long ejectedUntil;
+    }
+}
@@ -0,0 +1,39 @@
+package com.bloodbank.common.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-service load balancer configuration, applied to every service through
+ * {@code @LoadBalancerClients(defaultConfiguration = ...)}. Instances come from the
+ * configured static lists and are filtered by periodic actuator health checks.
+ */
+public class LoadBalancerConfig {
+
+    @Bean
+    public ServiceInstanceListSupplier serviceInstanceListSupplier(ConfigurableApplicationContext context) {
+        return ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .withHealthChecks()
+                .build(context);
+    }
+
+    /**
+     * Declared with its concrete type so it is also found as the client's
+     * LoadBalancerLifecycle, which is how it learns about in-flight calls and failures.
+     */
+    @Bean
+    public LeastOutstandingLoadBalancer leastOutstandingLoadBalancer(
+            Environment environment, ObjectProvider<ServiceInstanceListSupplier> suppliers) {
+        return new LeastOutstandingLoadBalancer(
+                environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME),
+                suppliers,
+                environment.getProperty("loadbalancer.outlier.consecutive-failures", Integer.class, 3),
+                environment.getProperty("loadbalancer.outlier.base-ejection-ms", Long.class, 30_000L),
+                environment.getProperty("loadbalancer.outlier.max-ejection-ms", Long.class, 300_000L));
+    }
+}
@@ -1,9 +1,19 @@
 package com.bloodbank.donor;
 
+import com.bloodbank.common.config.ObservationConfig;
+import com.bloodbank.common.config.PinnedThreadMonitor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@Import({PinnedThreadMonitor.class, ObservationConfig.class})
+// Cache advice wraps the transaction advice, so entries are only written or evicted once the change has committed
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+@EnableScheduling
 public class DonorServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(DonorServiceApplication.class, args);
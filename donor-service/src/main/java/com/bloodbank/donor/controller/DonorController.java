@@ -1,13 +1,20 @@
 package com.bloodbank.donor.controller;
 
+import com.bloodbank.donor.dto.ImportReport;
 import com.bloodbank.donor.model.Donor;
+import com.bloodbank.donor.service.DonorBulkService;
 import com.bloodbank.donor.service.DonorService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -17,6 +24,9 @@ public class DonorController {
     @Autowired
     private DonorService donorService;
 
+    @Autowired
+    private DonorBulkService donorBulkService;
+
     @GetMapping
     public ResponseEntity<List<Donor>> getAllDonors() {
         return ResponseEntity.ok(donorService.getAllDonors());
@@ -37,11 +47,33 @@ public class DonorController {
         return ResponseEntity.ok(donorService.getEligibleDonors());
     }
 
+    @GetMapping("/compatible/{bloodGroup}")
+    public ResponseEntity<List<Donor>> getCompatibleDonors(
+            @PathVariable String bloodGroup,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(donorService.getCompatibleDonors(bloodGroup, limit));
+    }
+
     @PostMapping
     public ResponseEntity<Donor> createDonor(@Valid @RequestBody Donor donor) {
         return new ResponseEntity<>(donorService.createDonor(donor), HttpStatus.CREATED);
     }
 
+    @PostMapping(path = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportReport> importDonors(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        DonorBulkService.Format format = DonorBulkService.Format.of(MediaType.parseMediaType(contentType));
+        return ResponseEntity.ok(donorBulkService.importDonors(body, format));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportDonors(@RequestParam(defaultValue = "ndjson") String format) {
+        DonorBulkService.Format exportFormat = DonorBulkService.Format.of(format);
+        StreamingResponseBody body = out -> donorBulkService.export(exportFormat, out);
+        return ResponseEntity.ok().contentType(exportFormat.getMediaType()).body(body);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Donor> updateDonor(@PathVariable(name = "id") Long id, @Valid @RequestBody Donor donor) {
         return ResponseEntity.ok(donorService.updateDonor(id, donor));
@@ -0,0 +1,28 @@
+package com.bloodbank.donor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReport {
+    private long received;
+    private long imported;
+    private long rejected;
+    /** Rejected rows in file order; capped, so may hold fewer entries than {@code rejected}. */
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        /** 1-based line number in the uploaded file. */
+        private long line;
+        private String message;
+    }
+}
@@ -15,7 +15,9 @@ import java.time.LocalDate;
 public class Donor {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence ids let Hibernate and the bulk importer allocate keys in blocks and batch inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "donor_seq")
+    @SequenceGenerator(name = "donor_seq", sequenceName = "donor_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name is required")
@@ -0,0 +1,22 @@
+package com.bloodbank.donor.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+/** How far a scheduled job has got, so a restart resumes instead of starting over. */
+@Entity
+@Table(name = "job_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobCheckpoint {
+
+    @Id
+    private String name;
+
+    @Column(name = "completed_through", nullable = false)
+    private LocalDate completedThrough;
+}
@@ -0,0 +1,441 @@
+package com.bloodbank.donor.service;
+
+import com.bloodbank.donor.dto.ImportReport;
+import com.bloodbank.donor.model.Donor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk donor import and export. Imports are read line by line and handled in chunks:
+ * rows are parsed and validated in parallel, emails are checked against a set loaded
+ * once up front instead of one query per row, ids come from the pooled donor sequence
+ * and each chunk is written with one batched INSERT. Exports stream rows from a JDBC
+ * cursor straight to the response.
+ */
+@Service
+public class DonorBulkService {
+    private static final Logger logger = LoggerFactory.getLogger(DonorBulkService.class);
+
+    private static final String INSERT_SQL = "insert into donors (id, name, date_of_birth, blood_group, phone_number, "
+            + "email, address, last_donation_date, donation_count, eligible) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String EXPORT_SQL = "select id, name, date_of_birth, blood_group, phone_number, email, "
+            + "address, last_donation_date, donation_count, eligible from donors order by id";
+
+    static final List<String> CSV_COLUMNS = List.of("id", "name", "dateOfBirth", "bloodGroup", "phoneNumber",
+            "email", "address", "lastDonationDate", "donationCount", "eligible");
+
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of(
+            "name", "dateOfBirth", "bloodGroup", "phoneNumber", "address");
+
+    public enum Format {
+        CSV(MediaType.parseMediaType("text/csv")),
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"));
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public static Format of(MediaType mediaType) {
+            for (Format format : values()) {
+                if (format.mediaType.isCompatibleWith(mediaType)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported format: " + mediaType);
+        }
+
+        public static Format of(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported format: " + name);
+            }
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DonorIndex donorIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${donor.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${donor.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public ImportReport importDonors(InputStream in, Format format) throws IOException {
+        ImportReport report = new ImportReport();
+        Set<String> emails = loadEmails();
+        ObjectReader donorReader = objectMapper.readerFor(Donor.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        LocalDate today = LocalDate.now();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Map<String, Integer> header = null;
+        long lineNumber = 0;
+        List<Line> chunk = new ArrayList<>(batchSize);
+        String text;
+        while ((text = reader.readLine()) != null) {
+            lineNumber++;
+            if (text.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && header == null) {
+                header = parseHeader(text);
+                continue;
+            }
+            chunk.add(new Line(lineNumber, text));
+            if (chunk.size() == batchSize) {
+                importChunk(chunk, format, header, donorReader, emails, today, report);
+                chunk = new ArrayList<>(batchSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, format, header, donorReader, emails, today, report);
+        }
+        logger.info("Imported {} of {} donors, {} rejected", report.getImported(), report.getReceived(), report.getRejected());
+        return report;
+    }
+
+    public void export(Format format, OutputStream out) {
+        ObjectWriter donorWriter = objectMapper.writerFor(Donor.class);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            if (format == Format.CSV) {
+                writer.write(String.join(",", CSV_COLUMNS));
+                writer.write('\n');
+            }
+            jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(EXPORT_SQL);
+                statement.setFetchSize(batchSize);
+                return statement;
+            }, rs -> {
+                Donor donor = mapDonor(rs);
+                try {
+                    if (format == Format.CSV) {
+                        writeCsv(writer, donor);
+                    } else {
+                        writer.write(donorWriter.writeValueAsString(donor));
+                    }
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void importChunk(List<Line> lines, Format format, Map<String, Integer> header, ObjectReader donorReader,
+                             Set<String> emails, LocalDate today, ImportReport report) {
+        List<Parsed> parsed = lines.parallelStream()
+                .map(line -> parse(line, format, header, donorReader, today))
+                .toList();
+
+        // Duplicates are resolved in file order, so the first occurrence of an email wins
+        List<Parsed> accepted = new ArrayList<>(parsed.size());
+        for (Parsed row : parsed) {
+            report.setReceived(report.getReceived() + 1);
+            if (row.error != null) {
+                reject(report, row.line, row.error);
+            } else if (row.donor.getEmail() != null && !emails.add(row.donor.getEmail())) {
+                reject(report, row.line, "Email already registered");
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            insert(accepted);
+            report.setImported(report.getImported() + accepted.size());
+        } catch (DataIntegrityViolationException e) {
+            // Most likely a donor registered concurrently; find the offending rows one at a time
+            for (Parsed row : accepted) {
+                try {
+                    insert(List.of(row));
+                    report.setImported(report.getImported() + 1);
+                } catch (DataIntegrityViolationException rowError) {
+                    reject(report, row.line, "Rejected by database: " + rootMessage(rowError));
+                }
+            }
+        }
+    }
+
+    private void insert(List<Parsed> rows) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+            BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getMappingMetamodel()
+                    .getEntityDescriptor(Donor.class)
+                    .getGenerator();
+            for (Parsed row : rows) {
+                row.donor.setId((Long) generator.generate(session, row.donor, null, EventType.INSERT));
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+                Donor donor = row.donor;
+                ps.setLong(1, donor.getId());
+                ps.setString(2, donor.getName());
+                ps.setDate(3, Date.valueOf(donor.getDateOfBirth()));
+                ps.setString(4, donor.getBloodGroup());
+                ps.setString(5, donor.getPhoneNumber());
+                ps.setString(6, donor.getEmail());
+                ps.setString(7, donor.getAddress());
+                ps.setDate(8, donor.getLastDonationDate() == null ? null : Date.valueOf(donor.getLastDonationDate()));
+                ps.setInt(9, donor.getDonationCount());
+                ps.setBoolean(10, donor.getEligible());
+            });
+            for (Parsed row : rows) {
+                donorIndex.put(row.donor);
+            }
+        });
+    }
+
+    private Parsed parse(Line line, Format format, Map<String, Integer> header, ObjectReader donorReader, LocalDate today) {
+        Donor donor;
+        try {
+            donor = format == Format.CSV ? fromCsv(line.text, header) : donorReader.readValue(line.text);
+        } catch (JsonProcessingException e) {
+            return Parsed.error(line.number, "Malformed JSON: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return Parsed.error(line.number, e.getMessage());
+        }
+
+        donor.setId(null);
+        if (donor.getDonationCount() == null) {
+            donor.setDonationCount(0);
+        }
+        Set<ConstraintViolation<Donor>> violations = validator.validate(donor);
+        if (!violations.isEmpty()) {
+            return Parsed.error(line.number, violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        donor.setEligible(EligibilityRules.isEligible(donor.getDateOfBirth(), donor.getLastDonationDate(), today));
+        return new Parsed(line.number, donor, null);
+    }
+
+    private static Map<String, Integer> parseHeader(String text) {
+        List<String> columns = splitCsv(text);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim(), i);
+        }
+        for (String required : REQUIRED_CSV_COLUMNS) {
+            if (!header.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column: " + required);
+            }
+        }
+        return header;
+    }
+
+    private static Donor fromCsv(String text, Map<String, Integer> header) {
+        List<String> fields = splitCsv(text);
+        if (fields.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " columns but found " + fields.size());
+        }
+        Donor donor = new Donor();
+        donor.setName(field(fields, header, "name"));
+        donor.setDateOfBirth(date(field(fields, header, "dateOfBirth")));
+        donor.setBloodGroup(field(fields, header, "bloodGroup"));
+        donor.setPhoneNumber(field(fields, header, "phoneNumber"));
+        donor.setEmail(field(fields, header, "email"));
+        donor.setAddress(field(fields, header, "address"));
+        donor.setLastDonationDate(date(field(fields, header, "lastDonationDate")));
+        String donationCount = field(fields, header, "donationCount");
+        if (donationCount != null) {
+            try {
+                donor.setDonationCount(Integer.parseInt(donationCount));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid donationCount: " + donationCount);
+            }
+        }
+        return donor;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> header, String column) {
+        Integer index = header.get(column);
+        if (index == null) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static LocalDate date(String value) {
+        return value == null ? null : LocalDate.parse(value);
+    }
+
+    /** RFC 4180 fields on a single line: commas separate, double quotes wrap and "" escapes a quote. */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void writeCsv(Writer writer, Donor donor) throws IOException {
+        Object[] values = {donor.getId(), donor.getName(), donor.getDateOfBirth(), donor.getBloodGroup(),
+                donor.getPhoneNumber(), donor.getEmail(), donor.getAddress(), donor.getLastDonationDate(),
+                donor.getDonationCount(), donor.getEligible()};
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(escapeCsv(values[i].toString()));
+            }
+        }
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static Donor mapDonor(ResultSet rs) throws SQLException {
+        Donor donor = new Donor();
+        donor.setId(rs.getLong("id"));
+        donor.setName(rs.getString("name"));
+        donor.setDateOfBirth(rs.getDate("date_of_birth").toLocalDate());
+        donor.setBloodGroup(rs.getString("blood_group"));
+        donor.setPhoneNumber(rs.getString("phone_number"));
+        donor.setEmail(rs.getString("email"));
+        donor.setAddress(rs.getString("address"));
+        Date lastDonation = rs.getDate("last_donation_date");
+        donor.setLastDonationDate(lastDonation == null ? null : lastDonation.toLocalDate());
+        donor.setDonationCount(rs.getInt("donation_count"));
+        donor.setEligible(rs.getBoolean("eligible"));
+        return donor;
+    }
+
+    private Set<String> loadEmails() {
+        Set<String> emails = new HashSet<>();
+        jdbcTemplate.query("select email from donors where email is not null", rs -> {
+            emails.add(rs.getString(1));
+        });
+        return emails;
+    }
+
+    private void reject(ImportReport report, long line, String message) {
+        report.setRejected(report.getRejected() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new ImportReport.RowError(line, message));
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    private record Line(long number, String text) {
+    }
+
+    private record Parsed(long line, Donor donor, String error) {
+        static Parsed error(long line, String error) {
+            return new Parsed(line, null, error);
+        }
+    }
+}
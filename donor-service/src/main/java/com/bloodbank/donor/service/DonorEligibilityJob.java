@@ -0,0 +1,117 @@
+package com.bloodbank.donor.service;
+
+import com.bloodbank.donor.model.JobCheckpoint;
+import com.bloodbank.donor.repository.JobCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps the {@code eligible} column in step with the calendar. Each run only looks at
+ * donors who crossed a boundary since the last completed day: turned 18, turned 66, or
+ * reached the end of their donation cooldown. Rows are rewritten with bulk UPDATEs of
+ * at most {@code chunk-size} rows, each committed on its own, and only when the stored
+ * flag is actually wrong.
+ */
+@Component
+public class DonorEligibilityJob {
+    private static final Logger logger = LoggerFactory.getLogger(DonorEligibilityJob.class);
+
+    private static final String NAME = "donor-eligibility";
+
+    private static final String ELIGIBLE =
+            "(date_of_birth <= ? and date_of_birth > ? and (last_donation_date is null or last_donation_date <= ?))";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${donor.eligibility.enabled:true}")
+    private boolean enabled;
+
+    @Value("${donor.eligibility.chunk-size:5000}")
+    private int chunkSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        run();
+    }
+
+    @Scheduled(cron = "${donor.eligibility.cron:0 5 0 * * *}")
+    public void run() {
+        if (enabled) {
+            recompute(LocalDate.now());
+        }
+    }
+
+    public synchronized void recompute(LocalDate today) {
+        LocalDate from = checkpointRepository.findById(NAME)
+                .map(JobCheckpoint::getCompletedThrough)
+                .orElse(null);
+        if (from != null && !from.isBefore(today)) {
+            return;
+        }
+
+        long updated;
+        if (from == null) {
+            // First run: every row is a candidate, but only stale ones are written
+            updated = update("1 = 1", today);
+        } else {
+            updated = update("date_of_birth > ? and date_of_birth <= ?", today,
+                    EligibilityRules.bornOnOrBefore(from), EligibilityRules.bornOnOrBefore(today))
+                    + update("date_of_birth > ? and date_of_birth <= ?", today,
+                    EligibilityRules.bornAfter(from), EligibilityRules.bornAfter(today))
+                    + update("last_donation_date > ? and last_donation_date <= ?", today,
+                    EligibilityRules.donatedOnOrBefore(from), EligibilityRules.donatedOnOrBefore(today));
+        }
+        checkpointRepository.save(new JobCheckpoint(NAME, today));
+        if (updated > 0) {
+            // The bulk UPDATEs bypass the cache; a daily clear is cheaper than tracking which ids changed
+            Cache donors = cacheManager.getCache("donors");
+            if (donors != null) {
+                donors.clear();
+            }
+        }
+        logger.info("Recomputed donor eligibility from {} through {}: {} donors changed",
+                from == null ? "the beginning" : from, today, updated);
+    }
+
+    private long update(String window, LocalDate today, Object... windowArgs) {
+        String sql = "update donors set eligible = " + ELIGIBLE
+                + " where " + window + " and eligible <> " + ELIGIBLE + " limit ?";
+        Object[] rule = {
+                EligibilityRules.bornOnOrBefore(today),
+                EligibilityRules.bornAfter(today),
+                EligibilityRules.donatedOnOrBefore(today)
+        };
+        Object[] args = new Object[rule.length * 2 + windowArgs.length + 1];
+        System.arraycopy(rule, 0, args, 0, rule.length);
+        System.arraycopy(windowArgs, 0, args, rule.length, windowArgs.length);
+        System.arraycopy(rule, 0, args, rule.length + windowArgs.length, rule.length);
+        args[args.length - 1] = chunkSize;
+
+        // Rewritten rows no longer match "eligible <> rule", so each pass picks up the next chunk
+        long total = 0;
+        int count;
+        do {
+            count = jdbcTemplate.update(sql, args);
+            total += count;
+        } while (count == chunkSize);
+        return total;
+    }
+}
@@ -0,0 +1,192 @@
+package com.bloodbank.donor.service;
+
+import com.bloodbank.donor.model.Donor;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory lookup of donors by ABO/Rh compatibility. Each blood group owns a bitset
+ * over donor ids; date of birth and the end of the donation cooldown are kept as epoch
+ * days in arrays indexed by the same id, so eligibility is checked without touching
+ * the database. Only the ids of the matches are then loaded.
+ * <p>
+ * Changes are applied after the surrounding transaction commits, so a rolled back
+ * registration or donation never shows up here.
+ */
+@Component
+public class DonorIndex {
+    private static final Logger logger = LoggerFactory.getLogger(DonorIndex.class);
+
+    static final List<String> BLOOD_GROUPS = List.of("A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-");
+
+    // Donor groups each recipient group can receive, best match first. O- comes last
+    // everywhere since it is the only group every recipient can take.
+    private static final String[][] COMPATIBLE_DONORS = {
+            {"A+", "A-", "O+", "O-"},
+            {"A-", "O-"},
+            {"B+", "B-", "O+", "O-"},
+            {"B-", "O-"},
+            {"AB+", "AB-", "A+", "A-", "B+", "B-", "O+", "O-"},
+            {"AB-", "A-", "B-", "O-"},
+            {"O+", "O-"},
+            {"O-"}
+    };
+
+    private static final int NOT_INDEXED = -1;
+    private static final int NEVER_DONATED = Integer.MIN_VALUE;
+
+    private final BitSet[] members = new BitSet[BLOOD_GROUPS.size()];
+    private byte[] groupOf = new byte[0];
+    private int[] birthDay = new int[0];
+    private int[] nextDonationDay = new int[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public DonorIndex() {
+        for (int i = 0; i < members.length; i++) {
+            members[i] = new BitSet();
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        int[] count = {0};
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(
+                    "select id, blood_group, date_of_birth, last_donation_date from donors");
+            statement.setFetchSize(10_000);
+            return statement;
+        }, rs -> {
+            Date lastDonation = rs.getDate(4);
+            apply(rs.getLong(1), rs.getString(2), rs.getDate(3).toLocalDate(),
+                    lastDonation == null ? null : lastDonation.toLocalDate());
+            count[0]++;
+        });
+        logger.info("Indexed {} donors", count[0]);
+    }
+
+    public static int indexOf(String bloodGroup) {
+        int group = BLOOD_GROUPS.indexOf(bloodGroup);
+        if (group < 0) {
+            throw new IllegalArgumentException("Invalid blood group: " + bloodGroup);
+        }
+        return group;
+    }
+
+    public void put(Donor donor) {
+        Long id = donor.getId();
+        String bloodGroup = donor.getBloodGroup();
+        LocalDate dateOfBirth = donor.getDateOfBirth();
+        LocalDate lastDonation = donor.getLastDonationDate();
+        afterCommit(() -> apply(id, bloodGroup, dateOfBirth, lastDonation));
+    }
+
+    public void remove(Long id) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                int slot = Math.toIntExact(id);
+                if (slot < groupOf.length && groupOf[slot] != NOT_INDEXED) {
+                    members[groupOf[slot]].clear(slot);
+                    groupOf[slot] = NOT_INDEXED;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Ids of up to {@code limit} donors who can give to {@code recipientGroup} today,
+     * ordered by how closely their group matches and then by id.
+     */
+    public List<Long> findEligibleCompatible(String recipientGroup, int limit, LocalDate today) {
+        String[] donorGroups = COMPATIBLE_DONORS[indexOf(recipientGroup)];
+        int bornOnOrBefore = (int) EligibilityRules.bornOnOrBefore(today).toEpochDay();
+        int bornAfter = (int) EligibilityRules.bornAfter(today).toEpochDay();
+        int day = (int) today.toEpochDay();
+
+        List<Long> ids = new ArrayList<>(Math.min(limit, 1024));
+        lock.readLock().lock();
+        try {
+            for (String donorGroup : donorGroups) {
+                BitSet bits = members[indexOf(donorGroup)];
+                for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+                    if (ids.size() == limit) {
+                        return ids;
+                    }
+                    int born = birthDay[id];
+                    if (born <= bornOnOrBefore && born > bornAfter && nextDonationDay[id] <= day) {
+                        ids.add((long) id);
+                    }
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(long id, String bloodGroup, LocalDate dateOfBirth, LocalDate lastDonation) {
+        int group = indexOf(bloodGroup);
+        int slot = Math.toIntExact(id);
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(slot + 1);
+            if (groupOf[slot] != NOT_INDEXED && groupOf[slot] != group) {
+                members[groupOf[slot]].clear(slot);
+            }
+            groupOf[slot] = (byte) group;
+            birthDay[slot] = (int) dateOfBirth.toEpochDay();
+            nextDonationDay[slot] = lastDonation == null
+                    ? NEVER_DONATED
+                    : (int) EligibilityRules.cooldownEnds(lastDonation).toEpochDay();
+            members[group].set(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= groupOf.length) {
+            return;
+        }
+        int capacity = Math.max(size, groupOf.length + (groupOf.length >> 1) + 1024);
+        int previous = groupOf.length;
+        groupOf = Arrays.copyOf(groupOf, capacity);
+        Arrays.fill(groupOf, previous, capacity, (byte) NOT_INDEXED);
+        birthDay = Arrays.copyOf(birthDay, capacity);
+        nextDonationDay = Arrays.copyOf(nextDonationDay, capacity);
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
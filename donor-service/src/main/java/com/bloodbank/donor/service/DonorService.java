@@ -4,14 +4,21 @@ import com.bloodbank.donor.model.Donor;
 import com.bloodbank.donor.repository.DonorRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
-import java.time.Period;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class DonorService {
@@ -20,11 +27,18 @@ public class DonorService {
     @Autowired
     private DonorRepository donorRepository;
 
+    @Autowired
+    private DonorIndex donorIndex;
+
+    @Value("${donor.matching.max-limit:500}")
+    private int maxMatchLimit;
+
     public List<Donor> getAllDonors() {
         logger.info("Fetching all donors");
         return donorRepository.findAll();
     }
 
+    @Cacheable(cacheNames = "donors", key = "#id")
     public Donor getDonorById(Long id) {
         logger.info("Fetching donor with id: {}", id);
         return donorRepository.findById(id)
@@ -47,16 +61,17 @@ public class DonorService {
             throw new IllegalArgumentException("Email already registered");
         }
         
-        // Calculate age and check eligibility
-        int age = Period.between(donor.getDateOfBirth(), LocalDate.now()).getYears();
-        if (age < 18 || age > 65) {
-            donor.setEligible(false);
-        }
+        // Age and cooldown from here on are kept current by DonorEligibilityJob
+        donor.setEligible(EligibilityRules.isEligible(
+                donor.getDateOfBirth(), donor.getLastDonationDate(), LocalDate.now()));
         
-        return donorRepository.save(donor);
+        Donor saved = donorRepository.save(donor);
+        donorIndex.put(saved);
+        return saved;
     }
 
     @Transactional
+    @CachePut(cacheNames = "donors", key = "#id")
     public Donor updateDonor(Long id, Donor donorDetails) {
         logger.info("Updating donor with id: {}", id);
         Donor donor = getDonorById(id);
@@ -66,17 +81,20 @@ public class DonorService {
         donor.setEmail(donorDetails.getEmail());
         donor.setAddress(donorDetails.getAddress());
         
-        return donorRepository.save(donor);
+        Donor saved = donorRepository.save(donor);
+        donorIndex.put(saved);
+        return saved;
     }
 
     @Transactional
+    @CacheEvict(cacheNames = "donors", key = "#id")
     public void recordDonation(Long id) {
         logger.info("Recording donation for donor with id: {}", id);
         Donor donor = getDonorById(id);
         
         // Check if enough time has passed since last donation (3 months)
         if (donor.getLastDonationDate() != null) {
-            LocalDate minDonationDate = donor.getLastDonationDate().plusMonths(3);
+            LocalDate minDonationDate = EligibilityRules.cooldownEnds(donor.getLastDonationDate());
             if (LocalDate.now().isBefore(minDonationDate)) {
                 logger.error("Donor is not eligible for donation yet");
                 throw new IllegalStateException("Donor is not eligible for donation yet");
@@ -85,10 +103,13 @@ public class DonorService {
         
         donor.setLastDonationDate(LocalDate.now());
         donor.setDonationCount(donor.getDonationCount() + 1);
+        donor.setEligible(false);
         donorRepository.save(donor);
+        donorIndex.put(donor);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = "donors", key = "#id")
     public void deleteDonor(Long id) {
         logger.info("Deleting donor with id: {}", id);
         if (!donorRepository.existsById(id)) {
@@ -96,10 +117,29 @@ public class DonorService {
             throw new EntityNotFoundException("Donor not found with id: " + id);
         }
         donorRepository.deleteById(id);
+        donorIndex.remove(id);
     }
 
     public List<Donor> getEligibleDonors() {
         logger.info("Fetching eligible donors");
         return donorRepository.findByEligibleTrue();
     }
+
+    /**
+     * Donors who can give to {@code bloodGroup} today: aged 18 to 65 and past the
+     * three-month cooldown. Exact matches come first and O- donors last.
+     */
+    public List<Donor> getCompatibleDonors(String bloodGroup, int limit) {
+        logger.info("Fetching up to {} donors compatible with blood group: {}", limit, bloodGroup);
+        if (limit < 1 || limit > maxMatchLimit) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxMatchLimit);
+        }
+        List<Long> ids = donorIndex.findEligibleCompatible(bloodGroup, limit, LocalDate.now());
+        Map<Long, Donor> donors = donorRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Donor::getId, Function.identity()));
+        return ids.stream()
+                .map(donors::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
 }
@@ -0,0 +1,48 @@
+package com.bloodbank.donor.service;
+
+import java.time.LocalDate;
+
+/**
+ * Donation eligibility: aged 18 to 65 in whole years and at least three months since
+ * the last donation. Expressed as date bounds so the same rule can be applied in memory
+ * and in SQL.
+ */
+public final class EligibilityRules {
+
+    public static final int MIN_AGE = 18;
+    public static final int MAX_AGE = 65;
+    public static final int COOLDOWN_MONTHS = 3;
+
+    private EligibilityRules() {
+    }
+
+    /** Latest date of birth that is old enough on {@code today}. */
+    public static LocalDate bornOnOrBefore(LocalDate today) {
+        return today.minusYears(MIN_AGE);
+    }
+
+    /** Donors born on or before this date are too old on {@code today}. */
+    public static LocalDate bornAfter(LocalDate today) {
+        return today.minusYears(MAX_AGE + 1);
+    }
+
+    /** Latest last-donation date whose cooldown is over by {@code today}. */
+    public static LocalDate donatedOnOrBefore(LocalDate today) {
+        // plusMonths clamps to month ends, so minusMonths alone can be up to three days early
+        LocalDate date = today.minusMonths(COOLDOWN_MONTHS);
+        while (!date.plusDays(1).plusMonths(COOLDOWN_MONTHS).isAfter(today)) {
+            date = date.plusDays(1);
+        }
+        return date;
+    }
+
+    public static LocalDate cooldownEnds(LocalDate lastDonationDate) {
+        return lastDonationDate.plusMonths(COOLDOWN_MONTHS);
+    }
+
+    public static boolean isEligible(LocalDate dateOfBirth, LocalDate lastDonationDate, LocalDate today) {
+        return !dateOfBirth.isAfter(bornOnOrBefore(today))
+                && dateOfBirth.isAfter(bornAfter(today))
+                && (lastDonationDate == null || !cooldownEnds(lastDonationDate).isAfter(today));
+    }
+}
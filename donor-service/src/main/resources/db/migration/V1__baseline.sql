@@ -0,0 +1,14 @@
+CREATE TABLE donors (
+    id                 BIGINT       NOT NULL AUTO_INCREMENT,
+    name               VARCHAR(255) NOT NULL,
+    date_of_birth      DATE         NOT NULL,
+    blood_group        VARCHAR(255) NOT NULL,
+    phone_number       VARCHAR(255) NOT NULL,
+    email              VARCHAR(255),
+    address            VARCHAR(255) NOT NULL,
+    last_donation_date DATE,
+    donation_count     INT          NOT NULL,
+    eligible           BIT          NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_donors_email UNIQUE (email)
+) ENGINE = InnoDB;
@@ -0,0 +1,5 @@
+-- findByBloodGroup
+CREATE INDEX idx_donors_blood_group ON donors (blood_group);
+
+-- findByEligibleTrue, and eligible donors of one group
+CREATE INDEX idx_donors_eligible_blood_group ON donors (eligible, blood_group);
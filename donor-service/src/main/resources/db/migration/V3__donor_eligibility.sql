@@ -0,0 +1,9 @@
+-- Eligibility job: donors crossing an age or cooldown boundary on a given day
+CREATE INDEX idx_donors_date_of_birth ON donors (date_of_birth);
+CREATE INDEX idx_donors_last_donation_date ON donors (last_donation_date);
+
+CREATE TABLE job_checkpoints (
+    name              VARCHAR(255) NOT NULL,
+    completed_through DATE         NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
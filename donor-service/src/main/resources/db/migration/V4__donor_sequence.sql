@@ -0,0 +1,8 @@
+-- Donor ids move from AUTO_INCREMENT to a pooled sequence (allocation size 50), which
+-- allows batched inserts. Hibernate treats each value as the top of a block of 50, so
+-- the sequence starts a full block above the highest existing id.
+SET @donor_seq_start = (SELECT COALESCE(MAX(id), 0) + 50 FROM donors);
+SET @create_donor_seq = CONCAT('CREATE SEQUENCE donor_seq START WITH ', @donor_seq_start, ' INCREMENT BY 50');
+PREPARE create_donor_seq FROM @create_donor_seq;
+EXECUTE create_donor_seq;
+DEALLOCATE PREPARE create_donor_seq;
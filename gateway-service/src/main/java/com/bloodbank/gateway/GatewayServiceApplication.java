@@ -1,10 +1,14 @@
 package com.bloodbank.gateway;
 
 import org.springframework.boot.SpringApplication;
+import com.bloodbank.common.config.ObservationConfig;
+import com.bloodbank.common.loadbalancer.LoadBalancerConfig;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsWebFilter;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
@@ -12,6 +16,8 @@ import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 import java.util.Arrays;
 
 @SpringBootApplication
+@Import(ObservationConfig.class)
+@LoadBalancerClients(defaultConfiguration = LoadBalancerConfig.class)
 public class GatewayServiceApplication {
 
     public static void main(String[] args) {
@@ -37,13 +43,13 @@ public class GatewayServiceApplication {
         return builder.routes()
                 .route("donor_service_route", r -> r
                         .path("/api/donors/**")
-                        .uri("http://localhost:8081"))
+                        .uri("lb://donor-service"))
                 .route("inventory_service_route", r -> r
                         .path("/api/inventory/**")
-                        .uri("http://localhost:8082"))
+                        .uri("lb://inventory-service"))
                 .route("request_service_route", r -> r
                         .path("/api/requests/**")
-                        .uri("http://localhost:8090"))
+                        .uri("lb://request-service"))
                 .build();
     }
 }
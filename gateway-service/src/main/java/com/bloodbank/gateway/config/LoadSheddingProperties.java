@@ -0,0 +1,36 @@
+package com.bloodbank.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.load-shedding")
+public class LoadSheddingProperties {
+
+    private boolean enabled = true;
+
+    /** Requests in flight through the gateway at which even critical traffic is turned away. */
+    private int maxConcurrent = 256;
+
+    /** Share of {@link #maxConcurrent} above which normal traffic is shed. */
+    private double normalThreshold = 0.8;
+
+    /** Share of {@link #maxConcurrent} above which low-priority traffic is shed. */
+    private double lowThreshold = 0.5;
+
+    private long retryAfterSeconds = 1;
+
+    /** Request rules that are shed last. EMERGENCY request creation is always critical. */
+    private List<String> critical = new ArrayList<>();
+
+    /** Reporting and list reads, shed first. */
+    private List<String> low = new ArrayList<>();
+
+    /** Long-lived streams that would otherwise hold a slot for their whole lifetime. */
+    private List<String> exempt = new ArrayList<>();
+}
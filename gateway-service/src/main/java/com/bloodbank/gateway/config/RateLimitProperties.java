@@ -0,0 +1,54 @@
+package com.bloodbank.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Header identifying the caller, honoured only on requests from {@link #trustedProxies}. */
+    private String clientKeyHeader = "X-Client-Id";
+
+    /**
+     * Remote addresses allowed to name the caller in {@link #clientKeyHeader}, such as a
+     * front end that authenticates its users. Every other request is keyed by its remote
+     * address, since the gateway cannot tell who sent the header.
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+
+    /** Buckets of clients idle for this long are dropped. */
+    private Duration idleBucketExpiry = Duration.ofMinutes(10);
+
+    /** Keyed by policy name. A request is limited by the first policy it matches. */
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    @Data
+    public static class Policy {
+        /** Request rules such as {@code "GET /api/inventory/transactions/**"}. */
+        private List<String> requests = new ArrayList<>();
+
+        private Limit limit = new Limit();
+
+        /** Per client key overrides of {@link #limit}. */
+        private Map<String, Limit> clients = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class Limit {
+        /** Largest burst a client can send at once. */
+        private long capacity = 20;
+
+        private double refillPerSecond = 10;
+    }
+}
@@ -0,0 +1,37 @@
+package com.bloodbank.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    /** Upper bound on cached responses across all policies. */
+    private long maxEntries = 1000;
+
+    /** Larger responses are still shared with coalesced callers but never stored. */
+    private int maxBodyBytes = 1024 * 1024;
+
+    /** Keyed by policy name, which is also the {@code policy} tag on the metrics. */
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    @Data
+    public static class Policy {
+        /** Ant-style path patterns, matched against the request path. */
+        private List<String> paths = new ArrayList<>();
+
+        /** How long a response is served from memory; zero only coalesces concurrent calls. */
+        private Duration ttl = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,113 @@
+package com.bloodbank.gateway.filter;
+
+import com.bloodbank.gateway.config.LoadSheddingProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency-based load shedding with three priority classes. Low-priority reads
+ * (reports, exports, lists) are turned away first once the gateway is half busy,
+ * normal traffic next, and critical traffic (EMERGENCY request creation and the
+ * inventory reserve/update paths) only at the hard limit. Shed requests get a 503
+ * with Retry-After.
+ */
+@Component
+public class LoadSheddingFilter implements GlobalFilter, Ordered {
+
+    enum Priority {
+        CRITICAL, NORMAL, LOW
+    }
+
+    private static final RequestRule CREATE_REQUEST = RequestRule.parse("POST /api/requests");
+
+    private final LoadSheddingProperties properties;
+    private final ObjectMapper objectMapper;
+    private final List<RequestRule> critical;
+    private final List<RequestRule> low;
+    private final List<RequestRule> exempt;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+
+    public LoadSheddingFilter(LoadSheddingProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.critical = RequestRule.parseAll(properties.getCritical());
+        this.low = RequestRule.parseAll(properties.getLow());
+        this.exempt = RequestRule.parseAll(properties.getExempt());
+        Gauge.builder("gateway.requests.in.flight", inFlight, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        // After rate limiting, so requests already over their client's rate never take a slot
+        return RateLimitFilter.ORDER + 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!properties.isEnabled() || RequestRule.anyMatch(exempt, request)) {
+            return chain.filter(exchange);
+        }
+        if (CREATE_REQUEST.matches(request)) {
+            // Priority is in the JSON body, so it is buffered (requests are small) and replayed downstream
+            return ServerWebExchangeUtils.cacheRequestBody(exchange, cached -> {
+                ServerWebExchange replay = exchange.mutate().request(cached).build();
+                return admit(replay, chain, isEmergency(replay) ? Priority.CRITICAL : Priority.NORMAL);
+            });
+        }
+        Priority priority = RequestRule.anyMatch(critical, request) ? Priority.CRITICAL
+                : RequestRule.anyMatch(low, request) ? Priority.LOW
+                : Priority.NORMAL;
+        return admit(exchange, chain, priority);
+    }
+
+    private Mono<Void> admit(ServerWebExchange exchange, GatewayFilterChain chain, Priority priority) {
+        int limit = switch (priority) {
+            case CRITICAL -> properties.getMaxConcurrent();
+            case NORMAL -> (int) (properties.getMaxConcurrent() * properties.getNormalThreshold());
+            case LOW -> (int) (properties.getMaxConcurrent() * properties.getLowThreshold());
+        };
+        if (inFlight.incrementAndGet() > limit) {
+            inFlight.decrementAndGet();
+            meterRegistry.counter("gateway.requests.shed", "priority", priority.name()).increment();
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(properties.getRetryAfterSeconds()));
+            return exchange.getResponse().setComplete();
+        }
+        return chain.filter(exchange).doFinally(signal -> inFlight.decrementAndGet());
+    }
+
+    private boolean isEmergency(ServerWebExchange exchange) {
+        DataBuffer body = exchange.getAttribute(ServerWebExchangeUtils.CACHED_REQUEST_BODY_ATTR);
+        if (body == null) {
+            return false;
+        }
+        try {
+            JsonNode priority = objectMapper.readTree(body.toString(StandardCharsets.UTF_8)).path("priority");
+            return "EMERGENCY".equals(priority.asText());
+        } catch (IOException e) {
+            // Malformed bodies are rejected by request-service; here they just are not emergencies
+            return false;
+        }
+    }
+}
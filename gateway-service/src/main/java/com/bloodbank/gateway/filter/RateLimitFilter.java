@@ -0,0 +1,104 @@
+package com.bloodbank.gateway.filter;
+
+import com.bloodbank.gateway.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client token-bucket rate limiting held in gateway memory, so no Redis is needed.
+ * Each policy owns one bucket per client key; callers over their rate get a 429 with
+ * Retry-After set to when their next token arrives. Limits are per gateway instance.
+ * The gateway does not authenticate callers, so the client key is the remote address
+ * unless the request comes from a trusted proxy that names the client in a header.
+ */
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+
+    private final RateLimitProperties properties;
+    private final Map<String, List<RequestRule>> rules = new LinkedHashMap<>();
+    private final Cache<String, TokenBucket> buckets;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        properties.getPolicies().forEach((name, policy) -> rules.put(name, RequestRule.parseAll(policy.getRequests())));
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getIdleBucketExpiry())
+                .build();
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        String policyName = policyFor(request);
+        if (policyName == null) {
+            return chain.filter(exchange);
+        }
+
+        RateLimitProperties.Policy policy = properties.getPolicies().get(policyName);
+        String client = clientKey(request);
+        RateLimitProperties.Limit limit = policy.getClients().getOrDefault(client, policy.getLimit());
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(policyName + '|' + client,
+                key -> new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond(), now));
+
+        long waitNanos = bucket.tryConsume(now);
+        if (waitNanos == 0) {
+            return chain.filter(exchange);
+        }
+        meterRegistry.counter("gateway.rate.limited", "policy", policyName).increment();
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+        return exchange.getResponse().setComplete();
+    }
+
+    private String policyFor(ServerHttpRequest request) {
+        for (Map.Entry<String, List<RequestRule>> entry : rules.entrySet()) {
+            if (RequestRule.anyMatch(entry.getValue(), request)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        String address = remote != null && remote.getAddress() != null ? remote.getAddress().getHostAddress() : "unknown";
+        // Anyone else could send a fresh header value per request and get a full bucket each time
+        if (properties.getTrustedProxies().contains(address)) {
+            String key = request.getHeaders().getFirst(properties.getClientKeyHeader());
+            if (key != null && !key.isBlank()) {
+                return key;
+            }
+        }
+        return address;
+    }
+}
@@ -0,0 +1,51 @@
+package com.bloodbank.gateway.filter;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+
+/**
+ * A request pattern written as {@code "GET /api/inventory/**"}, or just a path pattern
+ * to match every method.
+ */
+final class RequestRule {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final HttpMethod method;
+    private final String pathPattern;
+
+    private RequestRule(HttpMethod method, String pathPattern) {
+        this.method = method;
+        this.pathPattern = pathPattern;
+    }
+
+    static RequestRule parse(String rule) {
+        String trimmed = rule.trim();
+        int space = trimmed.indexOf(' ');
+        if (space < 0) {
+            return new RequestRule(null, trimmed);
+        }
+        return new RequestRule(HttpMethod.valueOf(trimmed.substring(0, space)), trimmed.substring(space + 1).trim());
+    }
+
+    static List<RequestRule> parseAll(List<String> rules) {
+        return rules.stream().map(RequestRule::parse).toList();
+    }
+
+    static boolean anyMatch(List<RequestRule> rules, ServerHttpRequest request) {
+        for (RequestRule rule : rules) {
+            if (rule.matches(request)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean matches(ServerHttpRequest request) {
+        return (method == null || method.equals(request.getMethod()))
+                && PATH_MATCHER.match(pathPattern, request.getPath().value());
+    }
+}
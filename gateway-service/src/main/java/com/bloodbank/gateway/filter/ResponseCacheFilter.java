@@ -0,0 +1,205 @@
+package com.bloodbank.gateway.filter;
+
+import com.bloodbank.gateway.config.ResponseCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived response cache with request coalescing for read endpoints. Concurrent
+ * identical GETs share one upstream call (single flight), and a successful response
+ * is then served from memory for the policy's TTL. Only paths listed in a policy are
+ * touched; everything else, including streamed responses, passes straight through.
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    private static final List<String> UNCACHED_HEADERS = List.of(
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION,
+            HttpHeaders.SET_COOKIE, HttpHeaders.DATE);
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ConcurrentHashMap<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final ResponseCacheProperties properties;
+    private final Cache<String, CachedResponse> cache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public ResponseCacheFilter(ResponseCacheProperties properties) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return value.ttl.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return value.ttl.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public int getOrder() {
+        // Ahead of the filter that writes the upstream body, so the body can be captured
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled() || exchange.getRequest().getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        String path = exchange.getRequest().getPath().value();
+        Map.Entry<String, ResponseCacheProperties.Policy> policy = policyFor(path);
+        if (policy == null) {
+            return chain.filter(exchange);
+        }
+        String query = exchange.getRequest().getURI().getRawQuery();
+        String key = query == null ? path : path + "?" + query;
+
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            record(exchange, policy.getKey(), "hit");
+            return write(exchange, cached, "HIT");
+        }
+
+        CompletableFuture<CachedResponse> flight = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            record(exchange, policy.getKey(), "coalesced");
+            // A leader that got nothing shareable (an error or a streamed body) leaves each caller to go upstream
+            return Mono.fromFuture(leader)
+                    .flatMap(response -> write(exchange, response, "COALESCED"))
+                    .switchIfEmpty(Mono.defer(() -> chain.filter(exchange)));
+        }
+
+        record(exchange, policy.getKey(), "miss");
+        exchange.getResponse().getHeaders().set("X-Cache", "MISS");
+        Duration ttl = policy.getValue().getTtl();
+        ServerHttpResponse capturing = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpStatusCode status = getStatusCode();
+                if (status == null || status.value() != HttpStatus.OK.value()) {
+                    finish(key, flight, null);
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(Flux.from(body))
+                        .defaultIfEmpty(bufferFactory().wrap(new byte[0]))
+                        .flatMap(joined -> {
+                            byte[] bytes = new byte[joined.readableByteCount()];
+                            joined.read(bytes);
+                            DataBufferUtils.release(joined);
+
+                            CachedResponse response = new CachedResponse(status, cacheableHeaders(getHeaders()), bytes, ttl);
+                            if (!ttl.isZero() && bytes.length <= properties.getMaxBodyBytes()) {
+                                cache.put(key, response);
+                            }
+                            finish(key, flight, response);
+                            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                        });
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                finish(key, flight, null);
+                return super.writeAndFlushWith(body);
+            }
+        };
+        return chain.filter(exchange.mutate().response(capturing).build())
+                .doFinally(signal -> finish(key, flight, null));
+    }
+
+    private Map.Entry<String, ResponseCacheProperties.Policy> policyFor(String path) {
+        for (Map.Entry<String, ResponseCacheProperties.Policy> policy : properties.getPolicies().entrySet()) {
+            for (String pattern : policy.getValue().getPaths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return policy;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void finish(String key, CompletableFuture<CachedResponse> flight, CachedResponse response) {
+        if (flight.complete(response)) {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, String outcome) {
+        ServerHttpResponse response = exchange.getResponse();
+        String etag = cached.headers.getETag();
+        if (etag != null && exchange.getRequest().getHeaders().getIfNoneMatch().contains(etag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().setETag(etag);
+            response.getHeaders().set("X-Cache", outcome);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.status);
+        response.getHeaders().putAll(cached.headers);
+        response.getHeaders().setContentLength(cached.body.length);
+        response.getHeaders().set("X-Cache", outcome);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body)));
+    }
+
+    private void record(ServerWebExchange exchange, String policy, String result) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        meterRegistry.counter("gateway.response.cache",
+                "policy", policy,
+                "route", route != null ? route.getId() : "unknown",
+                "result", result).increment();
+    }
+
+    private static HttpHeaders cacheableHeaders(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (UNCACHED_HEADERS.stream().noneMatch(name::equalsIgnoreCase) && !"X-Cache".equalsIgnoreCase(name)) {
+                copy.put(name, List.copyOf(values));
+            }
+        });
+        return HttpHeaders.readOnlyHttpHeaders(copy);
+    }
+
+    private record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, Duration ttl) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.bloodbank.gateway.filter;
+
+/** Classic token bucket: holds up to {@code capacity} tokens and refills continuously. */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(long capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    /** Takes a token, returning 0, or returns how many nanoseconds until one is available. */
+    synchronized long tryConsume(long now) {
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+}
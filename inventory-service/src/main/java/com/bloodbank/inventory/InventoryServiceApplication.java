@@ -1,10 +1,14 @@
 package com.bloodbank.inventory;
 
+import com.bloodbank.common.config.ObservationConfig;
+import com.bloodbank.common.config.PinnedThreadMonitor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@Import({PinnedThreadMonitor.class, ObservationConfig.class})
 @EnableScheduling
 public class InventoryServiceApplication {
     public static void main(String[] args) {
@@ -1,14 +1,26 @@
 package com.bloodbank.inventory.controller;
 
+import com.bloodbank.inventory.dto.InventoryAlert;
+import com.bloodbank.inventory.dto.InventorySnapshot;
+import com.bloodbank.inventory.dto.TransactionPage;
 import com.bloodbank.inventory.model.BloodInventory;
+import com.bloodbank.inventory.model.BloodReservation;
 import com.bloodbank.inventory.model.BloodTransaction;
 import com.bloodbank.inventory.service.BloodInventoryService;
+import com.bloodbank.inventory.service.BloodReservationService;
+import com.bloodbank.inventory.service.BloodTransactionHistoryService;
+import com.bloodbank.inventory.service.IdempotencyService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -20,15 +32,57 @@ public class BloodInventoryController {
     @Autowired
     private BloodInventoryService inventoryService;
 
+    @Autowired
+    private BloodReservationService reservationService;
+
+    @Autowired
+    private BloodTransactionHistoryService historyService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @GetMapping
-    public ResponseEntity<List<BloodInventory>> getAllInventory() {
-        return ResponseEntity.ok(inventoryService.getAllInventory());
+    public ResponseEntity<List<BloodInventory>> getAllInventory(WebRequest webRequest) {
+        String etag = etag(inventoryService.getVersion());
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(inventoryService.getAllInventory());
+    }
+
+    @GetMapping("/snapshot")
+    public ResponseEntity<InventorySnapshot> getSnapshot(WebRequest webRequest) {
+        String etag = etag(inventoryService.getVersion());
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        InventorySnapshot snapshot = inventoryService.getSnapshot();
+        return ResponseEntity.ok().eTag(etag(snapshot.getVersion())).body(snapshot);
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamEvents(
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return inventoryService.streamEvents(lastEventId);
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<Map<String, Integer>> getAvailability(
+            @RequestParam(required = false) List<String> bloodGroups) {
+        return ResponseEntity.ok(inventoryService.getAvailability(bloodGroups));
     }
 
     @GetMapping("/{bloodGroup}")
     public ResponseEntity<BloodInventory> getInventoryByBloodGroup(
-            @PathVariable String bloodGroup) {
-        return ResponseEntity.ok(inventoryService.getInventoryByBloodGroup(bloodGroup));
+            @PathVariable String bloodGroup,
+            WebRequest webRequest) {
+        String etag = etag(inventoryService.getVersion());
+        // Resolved first, so an unknown group is a 404 whatever tag the client sends
+        BloodInventory inventory = inventoryService.getInventoryByBloodGroup(bloodGroup);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(inventory);
     }
 
     @PostMapping
@@ -39,67 +93,185 @@ public class BloodInventoryController {
     @PostMapping("/{bloodGroup}/donate")
     public ResponseEntity<BloodInventory> processDonation(
             @PathVariable String bloodGroup,
-            @RequestBody Map<String, Integer> donation) {
-        return ResponseEntity.ok(inventoryService.updateInventory(
-                bloodGroup,
-                donation.get("quantity"),
-                BloodTransaction.TransactionType.DONATION));
+            @RequestBody Map<String, Integer> donation,
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "donate:" + bloodGroup + ":" + donation.get("quantity"),
+                BloodInventory.class,
+                () -> ResponseEntity.ok(inventoryService.updateInventory(
+                        bloodGroup,
+                        donation.get("quantity"),
+                        BloodTransaction.TransactionType.DONATION,
+                        idempotencyKey)),
+                () -> recorded(bloodGroup, idempotencyKey));
     }
 
     @PostMapping("/{bloodGroup}/request")
     public ResponseEntity<BloodInventory> processRequest(
             @PathVariable String bloodGroup,
-            @RequestBody Map<String, Integer> request) {
-        try {
-            Integer quantity = request.get("quantity");
-            if (quantity == null) {
-                throw new IllegalArgumentException("Quantity must be specified");
-            }
-            BloodInventory inventory = inventoryService.updateInventory(
-                bloodGroup,
-                quantity,
-                BloodTransaction.TransactionType.REQUEST);
-            return ResponseEntity.ok(inventory);
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Failed to process request: " + e.getMessage());
-        }
+            @RequestBody Map<String, Integer> request,
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        Integer quantity = request.get("quantity");
+        return idempotencyService.execute(idempotencyKey, "request:" + bloodGroup + ":" + quantity,
+                BloodInventory.class, () -> ResponseEntity.ok(deduct(bloodGroup, quantity, idempotencyKey)),
+                () -> recorded(bloodGroup, idempotencyKey));
+    }
+
+    @PostMapping("/{bloodGroup}/reserve")
+    public ResponseEntity<BloodReservation> reserve(
+            @PathVariable String bloodGroup,
+            @RequestBody Map<String, Long> reservation,
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        Long quantity = reservation.get("quantity");
+        return idempotencyService.execute(idempotencyKey, "reserve:" + bloodGroup + ":" + quantity,
+                BloodReservation.class,
+                () -> new ResponseEntity<>(reservationService.reserve(
+                        bloodGroup,
+                        quantity != null ? quantity.intValue() : null,
+                        reservation.get("ttlSeconds"),
+                        idempotencyKey), HttpStatus.CREATED),
+                () -> reservationService.findByIdempotencyKey(idempotencyKey)
+                        .map(held -> new ResponseEntity<>(held, HttpStatus.CREATED))
+                        .orElse(null));
+    }
+
+    @GetMapping("/reservations/{id}")
+    public ResponseEntity<BloodReservation> getReservation(@PathVariable(name = "id") Long id) {
+        return ResponseEntity.ok(reservationService.getReservation(id));
+    }
+
+    @PostMapping("/reservations/{id}/commit")
+    public ResponseEntity<BloodReservation> commitReservation(
+            @PathVariable(name = "id") Long id,
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "commit:" + id, BloodReservation.class,
+                () -> ResponseEntity.ok(reservationService.commit(id)),
+                () -> inStatus(id, BloodReservation.ReservationStatus.COMMITTED));
+    }
+
+    @PostMapping("/reservations/{id}/release")
+    public ResponseEntity<BloodReservation> releaseReservation(
+            @PathVariable(name = "id") Long id,
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "release:" + id, BloodReservation.class,
+                () -> ResponseEntity.ok(reservationService.release(id)),
+                () -> inStatus(id, BloodReservation.ReservationStatus.RELEASED));
+    }
+
+    // Paging is opt-in: without a cursor or limit the history endpoints still return every row, as one streamed array
+
+    @GetMapping(path = "/transactions", params = {"!cursor", "!limit"})
+    public ResponseEntity<StreamingResponseBody> getAllTransactions() {
+        return all(null, null, null);
     }
 
     @GetMapping("/transactions")
-    public ResponseEntity<List<BloodTransaction>> getAllTransactions() {
-        return ResponseEntity.ok(inventoryService.getTransactionHistory());
+    public ResponseEntity<List<BloodTransaction>> getTransactionPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return page(historyService.getPage(cursor, limit));
     }
 
-    @GetMapping("/transactions/date-range")
-    public ResponseEntity<List<BloodTransaction>> getTransactionsByDateRange(
+    @GetMapping(path = "/transactions/date-range", params = {"!cursor", "!limit"})
+    public ResponseEntity<StreamingResponseBody> getTransactionsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
-        return ResponseEntity.ok(inventoryService.getTransactionsByDateRange(start, end));
+        return all(null, start, end);
     }
 
-    @GetMapping("/transactions/{type}")
-    public ResponseEntity<List<BloodTransaction>> getTransactionsByType(
+    @GetMapping("/transactions/date-range")
+    public ResponseEntity<List<BloodTransaction>> getTransactionPageByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return page(historyService.getPageByDateRange(start, end, cursor, limit));
+    }
+
+    @GetMapping(path = "/transactions/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(required = false) BloodTransaction.TransactionType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        StreamingResponseBody body = out -> historyService.export(type, start, end, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
+    @GetMapping(path = "/transactions/{type}", params = {"!cursor", "!limit"})
+    public ResponseEntity<StreamingResponseBody> getTransactionsByType(
             @PathVariable BloodTransaction.TransactionType type) {
-        return ResponseEntity.ok(inventoryService.getTransactionsByType(type));
+        return all(type, null, null);
+    }
+
+    @GetMapping("/transactions/{type}")
+    public ResponseEntity<List<BloodTransaction>> getTransactionPageByType(
+            @PathVariable BloodTransaction.TransactionType type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return page(historyService.getPageByType(type, cursor, limit));
     }
 
     @GetMapping("/{bloodGroup}/check")
     public ResponseEntity<Boolean> checkAvailability(
             @PathVariable String bloodGroup,
             @RequestParam int quantity) {
+        return ResponseEntity.ok(inventoryService.checkAvailability(bloodGroup, quantity));
+    }
+
+    @GetMapping("/check-low-inventory")
+    public ResponseEntity<List<InventoryAlert>> checkLowInventory() {
+        return ResponseEntity.ok(inventoryService.checkLowInventory());
+    }
+
+    @GetMapping("/alerts")
+    public ResponseEntity<List<InventoryAlert>> getRecentAlerts() {
+        return ResponseEntity.ok(inventoryService.getRecentAlerts());
+    }
+
+    private BloodInventory deduct(String bloodGroup, Integer quantity, String idempotencyKey) {
         try {
-            System.out.println("Received availability check for blood group: " + bloodGroup + ", quantity: " + quantity);
-            boolean available = inventoryService.checkAvailability(bloodGroup, quantity);
-            System.out.println("Availability result: " + available);
-            return ResponseEntity.ok(available);
+            if (quantity == null) {
+                throw new IllegalArgumentException("Quantity must be specified");
+            }
+            return inventoryService.updateInventory(
+                bloodGroup,
+                quantity,
+                BloodTransaction.TransactionType.REQUEST,
+                idempotencyKey);
         } catch (Exception e) {
-            System.err.println("Error checking availability: " + e.getMessage());
-            throw e;
+            throw new IllegalArgumentException("Failed to process request: " + e.getMessage());
         }
     }
 
-    @GetMapping("/check-low-inventory")
-    public ResponseEntity<List<Map<String, Object>>> checkLowInventory() {
-        return ResponseEntity.ok(inventoryService.checkLowInventory());
+    // Answers for a taken-over Idempotency-Key whose first call had already taken effect
+
+    private ResponseEntity<BloodInventory> recorded(String bloodGroup, String idempotencyKey) {
+        return inventoryService.isRecorded(idempotencyKey)
+                ? ResponseEntity.ok(inventoryService.getInventoryByBloodGroup(bloodGroup))
+                : null;
+    }
+
+    private ResponseEntity<BloodReservation> inStatus(Long id, BloodReservation.ReservationStatus status) {
+        BloodReservation reservation = reservationService.getReservation(id);
+        return reservation.getStatus() == status ? ResponseEntity.ok(reservation) : null;
+    }
+
+    private ResponseEntity<StreamingResponseBody> all(BloodTransaction.TransactionType type,
+                                                      LocalDateTime start, LocalDateTime end) {
+        StreamingResponseBody body = out -> historyService.exportArray(type, start, end, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // The array shape of the history endpoints is kept; the cursor for the next page travels in a header
+    private static ResponseEntity<List<BloodTransaction>> page(TransactionPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    // The version is read before the body, so a tag can only ever be older than the data it is sent with
+    private static String etag(long version) {
+        return "\"" + version + "\"";
     }
 }
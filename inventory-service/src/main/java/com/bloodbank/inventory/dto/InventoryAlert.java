@@ -0,0 +1,24 @@
+package com.bloodbank.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryAlert {
+    private String bloodGroup;
+    private Type type;
+    private int currentQuantity;
+    private int minThreshold;
+    private String message;
+    private LocalDateTime timestamp;
+
+    public enum Type {
+        LOW,
+        RECOVERED
+    }
+}
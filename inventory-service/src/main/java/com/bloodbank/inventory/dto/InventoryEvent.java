@@ -0,0 +1,35 @@
+package com.bloodbank.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One applied inventory change. Stock figures are absolute values after the change,
+ * so a consumer that sees the latest event for a group has that group's exact state.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryEvent {
+    private long id;
+    private String bloodGroup;
+    private Type type;
+    private int quantity;
+    private int stock;
+    private int reserved;
+    private int available;
+    private LocalDateTime timestamp;
+
+    public enum Type {
+        REGISTERED,
+        DONATION,
+        REQUEST,
+        DISCARD,
+        RESERVED,
+        RELEASED,
+        COMMITTED
+    }
+}
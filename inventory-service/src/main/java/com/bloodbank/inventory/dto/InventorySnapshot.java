@@ -0,0 +1,26 @@
+package com.bloodbank.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventorySnapshot {
+    private long version;
+    private List<GroupStock> groups;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class GroupStock {
+        private String bloodGroup;
+        private int quantity;
+        private int reserved;
+        private int available;
+        private int minThreshold;
+    }
+}
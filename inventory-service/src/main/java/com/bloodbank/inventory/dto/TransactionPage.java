@@ -0,0 +1,17 @@
+package com.bloodbank.inventory.dto;
+
+import com.bloodbank.inventory.model.BloodTransaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPage {
+    private List<BloodTransaction> items;
+    /** Opaque cursor for the next page, or null on the last page. */
+    private String nextCursor;
+}
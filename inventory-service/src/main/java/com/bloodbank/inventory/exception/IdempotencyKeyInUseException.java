@@ -0,0 +1,9 @@
+package com.bloodbank.inventory.exception;
+
+/** The first call with this Idempotency-Key has not finished yet; the caller should retry shortly. */
+public class IdempotencyKeyInUseException extends RuntimeException {
+
+    public IdempotencyKeyInUseException(String key) {
+        super("A request with Idempotency-Key " + key + " is still being processed");
+    }
+}
@@ -0,0 +1,51 @@
+package com.bloodbank.inventory.model;
+
+public enum BloodGroup {
+    A_POSITIVE("A+"),
+    A_NEGATIVE("A-"),
+    B_POSITIVE("B+"),
+    B_NEGATIVE("B-"),
+    AB_POSITIVE("AB+"),
+    AB_NEGATIVE("AB-"),
+    O_POSITIVE("O+"),
+    O_NEGATIVE("O-");
+
+    public static final int COUNT = values().length;
+
+    private static final BloodGroup[] VALUES = values();
+
+    private final String label;
+
+    BloodGroup(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static BloodGroup of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Resolves a label such as "AB-" without allocating; returns null for anything
+     * that is not one of the eight ABO/Rh groups.
+     */
+    public static BloodGroup fromLabel(String label) {
+        if (label == null) {
+            return null;
+        }
+        switch (label) {
+            case "A+": return A_POSITIVE;
+            case "A-": return A_NEGATIVE;
+            case "B+": return B_POSITIVE;
+            case "B-": return B_NEGATIVE;
+            case "AB+": return AB_POSITIVE;
+            case "AB-": return AB_NEGATIVE;
+            case "O+": return O_POSITIVE;
+            case "O-": return O_NEGATIVE;
+            default: return null;
+        }
+    }
+}
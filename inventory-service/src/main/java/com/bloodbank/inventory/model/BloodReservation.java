@@ -0,0 +1,52 @@
+package com.bloodbank.inventory.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "blood_reservations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BloodReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank(message = "Blood group is required")
+    @Pattern(regexp = "^(A|B|AB|O)[+-]$", message = "Invalid blood group")
+    @Column(name = "blood_group", nullable = false)
+    private String bloodGroup;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be positive")
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReservationStatus status = ReservationStatus.HELD;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @JsonIgnore
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
+    public enum ReservationStatus {
+        HELD,
+        COMMITTED,
+        RELEASED,
+        EXPIRED
+    }
+}
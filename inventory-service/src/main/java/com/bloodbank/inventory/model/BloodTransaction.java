@@ -1,5 +1,6 @@
 package com.bloodbank.inventory.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
@@ -38,6 +39,11 @@ public class BloodTransaction {
 
     private String remarks;
 
+    // Set for donations and requests made under an Idempotency-Key
+    @JsonIgnore
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
     public enum TransactionType {
         DONATION,
         REQUEST,
@@ -0,0 +1,40 @@
+package com.bloodbank.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * A claimed Idempotency-Key. The response columns stay empty while the first call is
+ * still running and hold its outcome once it has succeeded. A claim without a response
+ * whose lease has run out was left by a call that never finished, and may be taken over.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
+    /** The operation and its arguments; the same key may not be reused for anything else. */
+    @Column(nullable = false)
+    private String fingerprint;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "response_body", length = 4000)
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+}
@@ -1,12 +1,37 @@
 package com.bloodbank.inventory.repository;
 
 import com.bloodbank.inventory.model.BloodInventory;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BloodInventoryRepository extends JpaRepository<BloodInventory, Long> {
     Optional<BloodInventory> findByBloodGroup(String bloodGroup);
     boolean existsByBloodGroup(String bloodGroup);
+
+    @Modifying
+    @Query("update BloodInventory b set b.quantity = :quantity, b.lastUpdated = :lastUpdated where b.bloodGroup = :bloodGroup")
+    int updateQuantity(@Param("bloodGroup") String bloodGroup,
+                       @Param("quantity") int quantity,
+                       @Param("lastUpdated") LocalDateTime lastUpdated);
+
+    @Modifying
+    @Query("update BloodInventory b set b.quantity = b.quantity - :quantity, b.lastUpdated = :lastUpdated where b.bloodGroup = :bloodGroup")
+    int deductQuantity(@Param("bloodGroup") String bloodGroup,
+                       @Param("quantity") int quantity,
+                       @Param("lastUpdated") LocalDateTime lastUpdated);
+
+    // Locked in id order, so two writers locking overlapping groups cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from BloodInventory b where b.bloodGroup in :bloodGroups order by b.id")
+    List<BloodInventory> lockByBloodGroupIn(@Param("bloodGroups") Collection<String> bloodGroups);
 }
@@ -0,0 +1,27 @@
+package com.bloodbank.inventory.repository;
+
+import com.bloodbank.inventory.model.BloodReservation;
+import com.bloodbank.inventory.model.BloodReservation.ReservationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BloodReservationRepository extends JpaRepository<BloodReservation, Long> {
+    Optional<BloodReservation> findFirstByIdempotencyKeyOrderByIdDesc(String idempotencyKey);
+
+    List<BloodReservation> findByStatusAndExpiresAtBefore(ReservationStatus status, LocalDateTime time, Pageable pageable);
+
+    @Query("select r.bloodGroup, sum(r.quantity) from BloodReservation r where r.status = :status group by r.bloodGroup")
+    List<Object[]> sumQuantityByBloodGroup(@Param("status") ReservationStatus status);
+
+    @Modifying
+    @Query("update BloodReservation r set r.status = :to where r.id = :id and r.status = :from")
+    int transition(@Param("id") Long id, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to);
+}
@@ -1,14 +1,46 @@
 package com.bloodbank.inventory.repository;
 
 import com.bloodbank.inventory.model.BloodTransaction;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface BloodTransactionRepository extends JpaRepository<BloodTransaction, Long> {
     List<BloodTransaction> findByBloodGroup(String bloodGroup);
     List<BloodTransaction> findByTimestampBetween(LocalDateTime start, LocalDateTime end);
     List<BloodTransaction> findByTransactionType(BloodTransaction.TransactionType type);
+    boolean existsByIdempotencyKey(String idempotencyKey);
+
+    // Keyset pages ordered by (timestamp, id): each page starts strictly after the last row of the previous one
+
+    @Query("select t from BloodTransaction t where t.timestamp > :timestamp or (t.timestamp = :timestamp and t.id > :id) order by t.timestamp, t.id")
+    List<BloodTransaction> findPageAfter(@Param("timestamp") LocalDateTime timestamp, @Param("id") long id, Pageable pageable);
+
+    @Query("select t from BloodTransaction t where t.transactionType = :type and (t.timestamp > :timestamp or (t.timestamp = :timestamp and t.id > :id)) order by t.timestamp, t.id")
+    List<BloodTransaction> findPageByTypeAfter(@Param("type") BloodTransaction.TransactionType type,
+                                               @Param("timestamp") LocalDateTime timestamp, @Param("id") long id, Pageable pageable);
+
+    @Query("select t from BloodTransaction t where t.timestamp <= :end and (t.timestamp > :timestamp or (t.timestamp = :timestamp and t.id > :id)) order by t.timestamp, t.id")
+    List<BloodTransaction> findPageInRangeAfter(@Param("timestamp") LocalDateTime timestamp, @Param("id") long id,
+                                                @Param("end") LocalDateTime end, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select t from BloodTransaction t where t.timestamp between :start and :end order by t.timestamp, t.id")
+    Stream<BloodTransaction> streamByTimestampBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select t from BloodTransaction t where t.transactionType = :type and t.timestamp between :start and :end order by t.timestamp, t.id")
+    Stream<BloodTransaction> streamByTypeAndTimestampBetween(@Param("type") BloodTransaction.TransactionType type,
+                                                             @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 }
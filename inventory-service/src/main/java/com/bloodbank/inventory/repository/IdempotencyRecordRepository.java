@@ -0,0 +1,35 @@
+package com.bloodbank.inventory.repository;
+
+import com.bloodbank.inventory.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /** Plain insert, so a key that is already taken fails on the primary key instead of being merged. */
+    @Modifying
+    @Query(value = "insert into idempotency_keys (idempotency_key, fingerprint, created_at, lease_until) values (:key, :fingerprint, :createdAt, :leaseUntil)",
+            nativeQuery = true)
+    int claim(@Param("key") String key, @Param("fingerprint") String fingerprint,
+              @Param("createdAt") LocalDateTime createdAt, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /** Renews the lease on an unfinished claim whose lease has run out; at most one caller wins it. */
+    @Modifying
+    @Query("update IdempotencyRecord r set r.leaseUntil = :leaseUntil where r.idempotencyKey = :key and r.fingerprint = :fingerprint"
+            + " and r.responseStatus is null and (r.leaseUntil is null or r.leaseUntil < :now)")
+    int takeOver(@Param("key") String key, @Param("fingerprint") String fingerprint,
+                 @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("update IdempotencyRecord r set r.responseStatus = :status, r.responseBody = :body where r.idempotencyKey = :key")
+    int complete(@Param("key") String key, @Param("status") int status, @Param("body") String body);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
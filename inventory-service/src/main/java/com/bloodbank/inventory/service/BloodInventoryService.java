@@ -1,22 +1,32 @@
 package com.bloodbank.inventory.service;
 
+import com.bloodbank.inventory.dto.InventoryAlert;
+import com.bloodbank.inventory.dto.InventoryEvent;
+import com.bloodbank.inventory.dto.InventorySnapshot;
+import com.bloodbank.inventory.model.BloodGroup;
 import com.bloodbank.inventory.model.BloodInventory;
 import com.bloodbank.inventory.model.BloodTransaction;
 import com.bloodbank.inventory.repository.BloodInventoryRepository;
 import com.bloodbank.inventory.repository.BloodTransactionRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
 
-import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 @Service
 public class BloodInventoryService {
+    private static final Logger logger = LoggerFactory.getLogger(BloodInventoryService.class);
 
     @Autowired
     private BloodInventoryRepository inventoryRepository;
@@ -24,13 +34,59 @@ public class BloodInventoryService {
     @Autowired
     private BloodTransactionRepository transactionRepository;
 
+    @Autowired
+    private InventoryLedger ledger;
+
+    @Autowired
+    private InventoryEventPublisher eventPublisher;
+
+    @Autowired
+    private LowInventoryAlerts lowInventoryAlerts;
+
+    @Value("${inventory.events.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
     public List<BloodInventory> getAllInventory() {
-        return inventoryRepository.findAll();
+        return ledger.snapshotAll();
+    }
+
+    public long getVersion() {
+        return ledger.version();
+    }
+
+    public InventorySnapshot getSnapshot() {
+        return ledger.versionedSnapshot();
+    }
+
+    /**
+     * Change stream for subscribers. A subscriber resuming within the replay window gets
+     * exactly the events it missed; anyone else starts from a full snapshot event. A
+     * subscriber too slow to keep up has its stream ended, and resumes or resynchronises
+     * from a snapshot when it reconnects.
+     */
+    public Flux<ServerSentEvent<Object>> streamEvents(Long lastEventId) {
+        return Flux.<ServerSentEvent<Object>>defer(() -> {
+            Flux<ServerSentEvent<Object>> heartbeat = Flux.interval(Duration.ofSeconds(heartbeatSeconds))
+                    .map(tick -> ServerSentEvent.builder().comment("keep-alive").build());
+            if (lastEventId != null && eventPublisher.canReplayFrom(lastEventId)) {
+                return eventPublisher.eventsAfter(lastEventId).map(this::toServerSentEvent).mergeWith(heartbeat);
+            }
+            InventorySnapshot snapshot = ledger.versionedSnapshot();
+            ServerSentEvent<Object> first = ServerSentEvent.<Object>builder(snapshot)
+                    .id(String.valueOf(snapshot.getVersion()))
+                    .event("snapshot")
+                    .build();
+            return Flux.concat(Flux.just(first),
+                            eventPublisher.eventsAfter(snapshot.getVersion()).map(this::toServerSentEvent))
+                    .mergeWith(heartbeat);
+        }).onErrorResume(Exceptions::isOverflow, e -> {
+            logger.info("Ending inventory event stream of a subscriber that fell behind");
+            return Flux.empty();
+        });
     }
 
     public BloodInventory getInventoryByBloodGroup(String bloodGroup) {
-        return inventoryRepository.findByBloodGroup(bloodGroup)
-                .orElseThrow(() -> new EntityNotFoundException("Blood group not found: " + bloodGroup));
+        return ledger.snapshot(resolve(bloodGroup));
     }
 
     @Transactional
@@ -50,86 +106,86 @@ public class BloodInventoryService {
         if (inventory.getMinThreshold() == null) {
             throw new IllegalArgumentException("Minimum threshold must be specified");
         }
-        return inventoryRepository.save(inventory);
+        BloodInventory saved = inventoryRepository.save(inventory);
+        ledger.register(saved);
+        return saved;
     }
 
-    @Transactional
     public BloodInventory updateInventory(String bloodGroup, int quantity, BloodTransaction.TransactionType type) {
-        BloodInventory inventory = getInventoryByBloodGroup(bloodGroup);
-        int newQuantity;
-
-        switch (type) {
-            case DONATION:
-                newQuantity = inventory.getQuantity() + quantity;
-                break;
-            case REQUEST:
-                newQuantity = inventory.getQuantity() - quantity;
-                if (newQuantity < 0) {
-                    throw new IllegalStateException("Insufficient blood units available");
-                }
-                break;
-            case DISCARD:
-                newQuantity = inventory.getQuantity() - quantity;
-                if (newQuantity < 0) {
-                    throw new IllegalStateException("Cannot discard more units than available");
-                }
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid transaction type");
+        return updateInventory(bloodGroup, quantity, type, null);
+    }
+
+    public BloodInventory updateInventory(String bloodGroup, int quantity, BloodTransaction.TransactionType type,
+                                          String idempotencyKey) {
+        BloodGroup group = resolve(bloodGroup);
+        if (type == null) {
+            throw new IllegalArgumentException("Invalid transaction type");
         }
+        int newQuantity = ledger.record(group, quantity, type, idempotencyKey);
+        BloodInventory inventory = ledger.snapshot(group);
+        inventory.setQuantity(newQuantity);
+        return inventory;
+    }
 
-        // Record the transaction
-        BloodTransaction transaction = new BloodTransaction();
-        transaction.setBloodGroup(bloodGroup);
-        transaction.setQuantity(quantity);
-        transaction.setTransactionType(type);
-        transaction.setRemarks("Inventory updated via " + type);
-        transactionRepository.save(transaction);
+    /** Whether a donation or request was made under {@code idempotencyKey}, written through or not. */
+    public boolean isRecorded(String idempotencyKey) {
+        return ledger.isPending(idempotencyKey) || transactionRepository.existsByIdempotencyKey(idempotencyKey);
+    }
 
-        // Update inventory
-        inventory.setQuantity(newQuantity);
-        return inventoryRepository.save(inventory);
+    public boolean checkAvailability(String bloodGroup, int quantity) {
+        BloodGroup group = BloodGroup.fromLabel(bloodGroup);
+        if (group == null || !ledger.contains(group)) {
+            logger.debug("Blood group {} not found in inventory", bloodGroup);
+            return false;
+        }
+        int available = ledger.available(group);
+        logger.debug("Checking availability for {}: required={}, available={}", bloodGroup, quantity, available);
+        return available >= quantity;
     }
 
-    public List<BloodTransaction> getTransactionHistory() {
-        return transactionRepository.findAll();
+    /**
+     * Units available to new requests (stock minus holds) for each requested group,
+     * or for every registered group when none are given. Unknown groups are skipped.
+     */
+    public Map<String, Integer> getAvailability(List<String> bloodGroups) {
+        Map<String, Integer> availability = new LinkedHashMap<>();
+        if (bloodGroups == null || bloodGroups.isEmpty()) {
+            for (BloodGroup group : BloodGroup.values()) {
+                if (ledger.contains(group)) {
+                    availability.put(group.getLabel(), ledger.available(group));
+                }
+            }
+            return availability;
+        }
+        for (String bloodGroup : bloodGroups) {
+            BloodGroup group = BloodGroup.fromLabel(bloodGroup);
+            if (group != null && ledger.contains(group)) {
+                availability.put(group.getLabel(), ledger.available(group));
+            }
+        }
+        return availability;
     }
 
-    public List<BloodTransaction> getTransactionsByDateRange(LocalDateTime start, LocalDateTime end) {
-        return transactionRepository.findByTimestampBetween(start, end);
+    public List<InventoryAlert> checkLowInventory() {
+        return lowInventoryAlerts.active(ledger::quantity);
     }
 
-    public List<BloodTransaction> getTransactionsByType(BloodTransaction.TransactionType type) {
-        return transactionRepository.findByTransactionType(type);
+    public List<InventoryAlert> getRecentAlerts() {
+        return lowInventoryAlerts.recent();
     }
 
-    public boolean checkAvailability(String bloodGroup, int quantity) {
-        try {
-            BloodInventory inventory = getInventoryByBloodGroup(bloodGroup);
-            System.out.println("Checking availability for " + bloodGroup + ": Required=" + quantity + ", Available=" + inventory.getQuantity());
-            return inventory.getQuantity() >= quantity;
-        } catch (EntityNotFoundException e) {
-            System.err.println("Blood group " + bloodGroup + " not found in inventory");
-            return false;
-        }
+    private ServerSentEvent<Object> toServerSentEvent(InventoryEvent event) {
+        return ServerSentEvent.<Object>builder(event)
+                .id(String.valueOf(event.getId()))
+                .event("change")
+                .build();
     }
 
-    public List<Map<String, Object>> checkLowInventory() {
-        List<BloodInventory> inventories = getAllInventory();
-        List<Map<String, Object>> alerts = new ArrayList<>();
-        
-        for (BloodInventory inventory : inventories) {
-            if (inventory.getQuantity() <= inventory.getMinThreshold()) {
-                Map<String, Object> alert = new HashMap<>();
-                alert.put("bloodGroup", inventory.getBloodGroup());
-                alert.put("currentQuantity", inventory.getQuantity());
-                alert.put("minThreshold", inventory.getMinThreshold());
-                alert.put("message", String.format("LOW INVENTORY ALERT: %s is below minimum threshold. Current quantity: %d",
-                        inventory.getBloodGroup(), inventory.getQuantity()));
-                alert.put("timestamp", LocalDateTime.now());
-                alerts.add(alert);
-            }
+    private BloodGroup resolve(String bloodGroup) {
+        BloodGroup group = BloodGroup.fromLabel(bloodGroup);
+        if (group == null || !ledger.contains(group)) {
+            throw new EntityNotFoundException("Blood group not found: " + bloodGroup);
         }
-        return alerts;
+        return group;
     }
 }
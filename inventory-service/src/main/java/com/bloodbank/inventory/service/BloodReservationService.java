@@ -0,0 +1,138 @@
+package com.bloodbank.inventory.service;
+
+import com.bloodbank.inventory.model.BloodGroup;
+import com.bloodbank.inventory.model.BloodReservation;
+import com.bloodbank.inventory.model.BloodReservation.ReservationStatus;
+import com.bloodbank.inventory.repository.BloodReservationRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Service
+public class BloodReservationService {
+    private static final Logger logger = LoggerFactory.getLogger(BloodReservationService.class);
+
+    @Autowired
+    private BloodReservationRepository reservationRepository;
+
+    @Autowired
+    private InventoryLedger ledger;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.reservation.default-ttl-seconds:86400}")
+    private long defaultTtlSeconds;
+
+    @Value("${inventory.reservation.reaper-batch-size:200}")
+    private int reaperBatchSize;
+
+    public BloodReservation getReservation(Long id) {
+        return reservationRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Reservation not found with id: " + id));
+    }
+
+    /** The latest reservation made under {@code idempotencyKey}, if any. */
+    public Optional<BloodReservation> findByIdempotencyKey(String idempotencyKey) {
+        return reservationRepository.findFirstByIdempotencyKeyOrderByIdDesc(idempotencyKey);
+    }
+
+    /**
+     * Holds units against the ledger and persists the hold. The ledger check and the
+     * hold happen in a single CAS, so concurrent callers can never overbook. The hold
+     * records the Idempotency-Key it was made under, if any.
+     */
+    public BloodReservation reserve(String bloodGroup, Integer quantity, Long ttlSeconds, String idempotencyKey) {
+        if (quantity == null || quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        BloodGroup group = BloodGroup.fromLabel(bloodGroup);
+        if (group == null || !ledger.contains(group)) {
+            throw new EntityNotFoundException("Blood group not found: " + bloodGroup);
+        }
+        long ttl = ttlSeconds != null && ttlSeconds > 0 ? ttlSeconds : defaultTtlSeconds;
+
+        ledger.reserve(group, quantity);
+        try {
+            BloodReservation reservation = new BloodReservation();
+            reservation.setBloodGroup(group.getLabel());
+            reservation.setQuantity(quantity);
+            reservation.setExpiresAt(reservation.getCreatedAt().plusSeconds(ttl));
+            reservation.setIdempotencyKey(idempotencyKey);
+            return reservationRepository.save(reservation);
+        } catch (RuntimeException e) {
+            ledger.release(group, quantity);
+            throw e;
+        }
+    }
+
+    /**
+     * Commits a hold. The ledger takes the units inside the transaction that marks the hold
+     * committed, so a ledger that refuses them leaves the hold as it was.
+     */
+    public BloodReservation commit(Long id) {
+        return transition(id, ReservationStatus.COMMITTED, reservation ->
+                ledger.commit(BloodGroup.fromLabel(reservation.getBloodGroup()), reservation.getQuantity(), id));
+    }
+
+    public BloodReservation release(Long id) {
+        BloodReservation reservation = transition(id, ReservationStatus.RELEASED, held -> { });
+        ledger.release(BloodGroup.fromLabel(reservation.getBloodGroup()), reservation.getQuantity());
+        return reservation;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.reaper-interval-ms:10000}")
+    public void reapExpired() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<BloodReservation> expired;
+        do {
+            expired = reservationRepository.findByStatusAndExpiresAtBefore(
+                    ReservationStatus.HELD, LocalDateTime.now(), PageRequest.of(0, reaperBatchSize));
+            if (expired.isEmpty()) {
+                return;
+            }
+            List<BloodReservation> batch = expired;
+            List<BloodReservation> reaped = transactionTemplate.execute(status -> {
+                List<BloodReservation> transitioned = new ArrayList<>(batch.size());
+                for (BloodReservation reservation : batch) {
+                    // The conditional update loses to a concurrent commit or release, so units are returned at most once.
+                    if (reservationRepository.transition(reservation.getId(), ReservationStatus.HELD, ReservationStatus.EXPIRED) == 1) {
+                        transitioned.add(reservation);
+                    }
+                }
+                return transitioned;
+            });
+            for (BloodReservation reservation : reaped) {
+                ledger.release(BloodGroup.fromLabel(reservation.getBloodGroup()), reservation.getQuantity());
+            }
+            logger.info("Expired {} of {} overdue reservations", reaped.size(), expired.size());
+        } while (expired.size() == reaperBatchSize);
+    }
+
+    /** Moves a held reservation to {@code to}, running {@code effect} in the same transaction once it has moved. */
+    private BloodReservation transition(Long id, ReservationStatus to, Consumer<BloodReservation> effect) {
+        BloodReservation reservation = getReservation(id);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (reservationRepository.transition(id, ReservationStatus.HELD, to) == 0) {
+                throw new IllegalStateException("Reservation " + id + " is no longer held");
+            }
+            effect.accept(reservation);
+        });
+        reservation.setStatus(to);
+        return reservation;
+    }
+}
@@ -0,0 +1,167 @@
+package com.bloodbank.inventory.service;
+
+import com.bloodbank.inventory.dto.TransactionPage;
+import com.bloodbank.inventory.model.BloodTransaction;
+import com.bloodbank.inventory.repository.BloodTransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Transaction history that never materialises the whole table: reads are keyset pages on
+ * (timestamp, id), and full listings and exports stream rows straight from the cursor to
+ * the response.
+ */
+@Service
+public class BloodTransactionHistoryService {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private BloodTransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${inventory.transactions.default-page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${inventory.transactions.max-page-size:1000}")
+    private int maxPageSize;
+
+    public TransactionPage getPage(String cursor, Integer limit) {
+        Cursor after = decode(cursor, EPOCH);
+        int size = pageSize(limit);
+        return page(transactionRepository.findPageAfter(after.timestamp, after.id, PageRequest.of(0, size)), size);
+    }
+
+    public TransactionPage getPageByType(BloodTransaction.TransactionType type, String cursor, Integer limit) {
+        Cursor after = decode(cursor, EPOCH);
+        int size = pageSize(limit);
+        return page(transactionRepository.findPageByTypeAfter(type, after.timestamp, after.id, PageRequest.of(0, size)), size);
+    }
+
+    public TransactionPage getPageByDateRange(LocalDateTime start, LocalDateTime end, String cursor, Integer limit) {
+        Cursor after = decode(cursor, start);
+        if (after.timestamp.isBefore(start)) {
+            after = new Cursor(start, 0);
+        }
+        int size = pageSize(limit);
+        return page(transactionRepository.findPageInRangeAfter(after.timestamp, after.id, end, PageRequest.of(0, size)), size);
+    }
+
+    /**
+     * Writes matching transactions as newline-delimited JSON. Rows are fetched in chunks and
+     * evicted from the persistence context as soon as they are written, so memory use does
+     * not grow with the size of the history.
+     */
+    public void export(BloodTransaction.TransactionType type, LocalDateTime start, LocalDateTime end, OutputStream out) {
+        write(type, start, end, out, false);
+    }
+
+    /** Writes matching transactions as one JSON array, streamed like {@link #export}. */
+    public void exportArray(BloodTransaction.TransactionType type, LocalDateTime start, LocalDateTime end, OutputStream out) {
+        write(type, start, end, out, true);
+    }
+
+    private void write(BloodTransaction.TransactionType type, LocalDateTime start, LocalDateTime end, OutputStream out,
+                       boolean array) {
+        LocalDateTime from = start != null ? start : EPOCH;
+        LocalDateTime to = end != null ? end : END_OF_TIME;
+        ObjectWriter writer = objectMapper.writerFor(BloodTransaction.class);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<BloodTransaction> rows = type != null
+                    ? transactionRepository.streamByTypeAndTimestampBetween(type, from, to)
+                    : transactionRepository.streamByTimestampBetween(from, to)) {
+                if (array) {
+                    out.write('[');
+                }
+                boolean first = true;
+                for (Iterator<BloodTransaction> it = rows.iterator(); it.hasNext(); first = false) {
+                    BloodTransaction transaction = it.next();
+                    if (array && !first) {
+                        out.write(',');
+                    }
+                    out.write(writer.writeValueAsBytes(transaction));
+                    if (!array) {
+                        out.write(NEWLINE);
+                    }
+                    entityManager.detach(transaction);
+                }
+                if (array) {
+                    out.write(']');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    private static TransactionPage page(List<BloodTransaction> items, int size) {
+        if (items.size() < size) {
+            return new TransactionPage(items, null);
+        }
+        BloodTransaction last = items.get(items.size() - 1);
+        return new TransactionPage(items, encode(last.getTimestamp(), last.getId()));
+    }
+
+    private static String encode(LocalDateTime timestamp, long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((timestamp + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(String cursor, LocalDateTime start) {
+        if (cursor == null || cursor.isBlank()) {
+            return new Cursor(start, 0);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private record Cursor(LocalDateTime timestamp, long id) {
+    }
+}
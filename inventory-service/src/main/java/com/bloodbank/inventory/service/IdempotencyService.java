@@ -0,0 +1,154 @@
+package com.bloodbank.inventory.service;
+
+import com.bloodbank.inventory.exception.IdempotencyKeyInUseException;
+import com.bloodbank.inventory.model.IdempotencyRecord;
+import com.bloodbank.inventory.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Runs state-changing calls at most once per Idempotency-Key. The key is claimed before the
+ * call runs and the successful response is stored with it, so a retry gets the original
+ * answer back instead of changing stock twice. A failed call gives its key up again, since
+ * nothing was changed and the caller may retry it.
+ * <p>
+ * A claim is leased. If the process dies between claiming a key and storing the response,
+ * the first retry after the lease runs out takes the claim over and looks for what the
+ * lost call did before running anything: changes are recorded with the key they were made
+ * under, so a call that had taken effect is answered from that rather than run twice.
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final String IN_PROGRESS_HEADER = "Idempotency-Key-In-Progress";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${inventory.idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${inventory.idempotency.lease-seconds:30}")
+    private long leaseSeconds;
+
+    /**
+     * Runs {@code operation} unless {@code key} has been seen before. {@code fingerprint}
+     * names the operation and its arguments; reusing a key for a different call is rejected.
+     * Without a key the operation simply runs. {@code recovered} is asked for the response
+     * when an abandoned claim is taken over, and returns null if the lost call left no trace.
+     */
+    public <T> ResponseEntity<T> execute(String key, String fingerprint, Class<T> type,
+                                         Supplier<ResponseEntity<T>> operation,
+                                         Supplier<ResponseEntity<T>> recovered) {
+        if (key == null) {
+            return operation.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ResponseEntity<T> response = null;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status ->
+                    repository.claim(key, fingerprint, now, now.plusSeconds(leaseSeconds)));
+        } catch (DataIntegrityViolationException e) {
+            if (!takeOver(transactionTemplate, key, fingerprint)) {
+                return replay(key, fingerprint, type);
+            }
+            // Not given up on failure: what the lost call did is still unknown
+            response = recovered.get();
+            if (response != null) {
+                logger.info("Recovered the outcome of an unfinished call with Idempotency-Key {}", key);
+            }
+        }
+
+        if (response == null) {
+            try {
+                response = operation.get();
+            } catch (RuntimeException e) {
+                transactionTemplate.executeWithoutResult(status -> repository.deleteById(key));
+                throw e;
+            }
+        }
+        ResponseEntity<T> completed = response;
+        String body = write(completed.getBody());
+        transactionTemplate.executeWithoutResult(status ->
+                repository.complete(key, completed.getStatusCode().value(), body));
+        return completed;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        Integer purged = new TransactionTemplate(transactionManager).execute(status ->
+                repository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours)));
+        if (purged != null && purged > 0) {
+            logger.info("Purged {} idempotency keys older than {} hours", purged, retentionHours);
+        }
+    }
+
+    /** Claims {@code key} if it was left unfinished and its lease has run out. */
+    private boolean takeOver(TransactionTemplate transactionTemplate, String key, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer taken = transactionTemplate.execute(status ->
+                repository.takeOver(key, fingerprint, now, now.plusSeconds(leaseSeconds)));
+        if (taken == null || taken == 0) {
+            return false;
+        }
+        logger.warn("Taking over Idempotency-Key {}, whose first call did not finish", key);
+        return true;
+    }
+
+    private <T> ResponseEntity<T> replay(String key, String fingerprint, Class<T> type) {
+        // Gone already if the first call failed in the meantime; the caller's retry will claim it afresh
+        IdempotencyRecord record = repository.findById(key)
+                .orElseThrow(() -> new IdempotencyKeyInUseException(key));
+        if (!record.getFingerprint().equals(fingerprint)) {
+            throw new IllegalArgumentException("Idempotency-Key " + key + " was already used for a different request");
+        }
+        if (record.getResponseStatus() == null) {
+            throw new IdempotencyKeyInUseException(key);
+        }
+        try {
+            T body = record.getResponseBody() == null ? null : objectMapper.readValue(record.getResponseBody(), type);
+            return ResponseEntity.status(record.getResponseStatus())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for Idempotency-Key " + key + " is unreadable", e);
+        }
+    }
+
+    private String write(Object body) {
+        try {
+            return body == null ? null : objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            // The call has already happened; a replay then gets the status without a body
+            logger.warn("Response cannot be stored for replay: {}", e.getMessage());
+            return null;
+        }
+    }
+}
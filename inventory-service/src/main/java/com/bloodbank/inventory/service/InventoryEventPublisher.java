@@ -0,0 +1,66 @@
+package com.bloodbank.inventory.service;
+
+import com.bloodbank.inventory.dto.InventoryEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Fans inventory events out to stream subscribers. The most recent events are retained
+ * so a reconnecting subscriber can resume from the last id it saw; each subscriber gets
+ * its own bounded buffer, so a slow consumer cannot hold memory or slow down inventory
+ * updates. A subscriber that overflows its buffer has its stream ended with an overflow
+ * error rather than silently losing events, and resynchronises when it reconnects.
+ */
+@Component
+public class InventoryEventPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryEventPublisher.class);
+
+    private final Sinks.Many<InventoryEvent> sink;
+    private final int replaySize;
+    private final int subscriberBufferSize;
+    private volatile long firstId;
+    private volatile long lastId;
+
+    public InventoryEventPublisher(@Value("${inventory.events.replay-size:1024}") int replaySize,
+                                   @Value("${inventory.events.subscriber-buffer-size:256}") int subscriberBufferSize) {
+        this.sink = Sinks.many().replay().limit(replaySize);
+        this.replaySize = replaySize;
+        this.subscriberBufferSize = subscriberBufferSize;
+    }
+
+    /** Called by one ledger thread at a time, so events arrive one at a time and in id order. */
+    void publish(InventoryEvent event) {
+        Sinks.EmitResult result = sink.tryEmitNext(event);
+        if (result.isFailure()) {
+            // Never thrown: the change is already applied. Subscribers see the gap in ids and resynchronise.
+            logger.error("Inventory event {} could not be published: {}", event.getId(), result);
+        }
+        if (firstId == 0) {
+            firstId = event.getId();
+        }
+        lastId = event.getId();
+    }
+
+    /** Retained and live events with an id greater than {@code afterId}. */
+    public Flux<InventoryEvent> eventsAfter(long afterId) {
+        return sink.asFlux()
+                .filter(event -> event.getId() > afterId)
+                .onBackpressureBuffer(subscriberBufferSize, dropped -> { }, BufferOverflowStrategy.ERROR);
+    }
+
+    /**
+     * Whether every event after {@code afterId} is still retained for replay. Ids are
+     * consecutive, so the window is simply the last {@code replaySize} of them. Ids from
+     * before a restart are all lower than the first one published since, and cannot be
+     * resumed however close they are.
+     */
+    public boolean canReplayFrom(long afterId) {
+        long last = lastId;
+        return afterId <= last && afterId >= last - replaySize && afterId >= firstId - 1;
+    }
+}
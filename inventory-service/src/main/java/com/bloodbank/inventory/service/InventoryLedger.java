@@ -0,0 +1,462 @@
+package com.bloodbank.inventory.service;
+
+import com.bloodbank.inventory.dto.InventoryEvent;
+import com.bloodbank.inventory.dto.InventorySnapshot;
+import com.bloodbank.inventory.model.BloodGroup;
+import com.bloodbank.inventory.model.BloodInventory;
+import com.bloodbank.inventory.model.BloodTransaction;
+import com.bloodbank.inventory.model.BloodReservation;
+import com.bloodbank.inventory.repository.BloodInventoryRepository;
+import com.bloodbank.inventory.repository.BloodReservationRepository;
+import com.bloodbank.inventory.repository.BloodTransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-memory source of truth for stock levels. Each blood group owns one atomic
+ * counter, so mutations on different groups never contend and mutations on the
+ * same group are resolved with a CAS loop instead of a row lock. Transactions
+ * are queued and written through to the database in batches by {@link #flush()},
+ * except reservation commits, which are written in the caller's transaction.
+ * <p>
+ * The counter packs the physical quantity into the high 32 bits and the units
+ * held by reservations into the low 32 bits, so a hold and a plain removal are
+ * checked against the same consistent view of "available = quantity - reserved".
+ * <p>
+ * Change events are published in version order without a lock: each change takes its
+ * version from an atomic counter and is queued, and whichever thread finds no other
+ * draining publishes every queued change whose turn has come.
+ */
+@Component
+public class InventoryLedger {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedger.class);
+
+    // Counters are spaced one cache line apart so hot groups do not false-share.
+    private static final int STRIDE = 8;
+
+    private final AtomicLongArray counters = new AtomicLongArray(BloodGroup.COUNT * STRIDE);
+    private final AtomicIntegerArray thresholds = new AtomicIntegerArray(BloodGroup.COUNT);
+    private final AtomicLongArray ids = new AtomicLongArray(BloodGroup.COUNT);
+    private final AtomicReferenceArray<LocalDateTime> lastUpdated = new AtomicReferenceArray<>(BloodGroup.COUNT);
+
+    private final ConcurrentLinkedDeque<BloodTransaction> pending = new ConcurrentLinkedDeque<>();
+
+    // Bumped after every change is applied, so a reader never pairs an old version with newer data it has not seen.
+    // Starts from the boot time in microseconds, so an ETag or event id handed out before a restart is always older
+    // than anything handed out after it, and stays within the 2^53 that JSON clients read exactly.
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    // Changes waiting to be published. Versions are taken before queueing, so they can arrive
+    // out of order; the draining thread holds early ones back until the gap before them fills.
+    private final ConcurrentLinkedQueue<Change> changes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger drainers = new AtomicInteger();
+    private final PriorityQueue<Change> early = new PriorityQueue<>(Comparator.comparingLong(Change::version));
+    private long nextToPublish = version.get() + 1;
+    private final AtomicReference<InventorySnapshot> lastSnapshot = new AtomicReference<>();
+
+    @Autowired
+    private BloodInventoryRepository inventoryRepository;
+
+    @Autowired
+    private BloodTransactionRepository transactionRepository;
+
+    @Autowired
+    private BloodReservationRepository reservationRepository;
+
+    @Autowired
+    private InventoryEventPublisher eventPublisher;
+
+    @Autowired
+    private LowInventoryAlerts lowInventoryAlerts;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.ledger.batch-size:500}")
+    private int batchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void load() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        for (BloodInventory inventory : inventoryRepository.findAll()) {
+            register(inventory);
+        }
+        for (Object[] row : reservationRepository.sumQuantityByBloodGroup(BloodReservation.ReservationStatus.HELD)) {
+            BloodGroup group = BloodGroup.fromLabel((String) row[0]);
+            if (group != null) {
+                int slot = group.ordinal() * STRIDE;
+                long counter = counters.get(slot);
+                counters.set(slot, pack(quantityOf(counter), ((Number) row[1]).intValue()));
+            }
+        }
+    }
+
+    public void register(BloodInventory inventory) {
+        BloodGroup group = BloodGroup.fromLabel(inventory.getBloodGroup());
+        if (group == null) {
+            return;
+        }
+        int i = group.ordinal();
+        counters.set(i * STRIDE, pack(inventory.getQuantity(), 0));
+        thresholds.set(i, inventory.getMinThreshold());
+        lastUpdated.set(i, inventory.getLastUpdated() != null ? inventory.getLastUpdated() : LocalDateTime.now());
+        ids.set(i, inventory.getId());
+        changed(group, InventoryEvent.Type.REGISTERED, inventory.getQuantity());
+    }
+
+    public boolean contains(BloodGroup group) {
+        return ids.get(group.ordinal()) != 0;
+    }
+
+    public int quantity(BloodGroup group) {
+        return quantityOf(counters.get(group.ordinal() * STRIDE));
+    }
+
+    public int reserved(BloodGroup group) {
+        return reservedOf(counters.get(group.ordinal() * STRIDE));
+    }
+
+    /** Units that can still be requested or reserved. */
+    public int available(BloodGroup group) {
+        long counter = counters.get(group.ordinal() * STRIDE);
+        return quantityOf(counter) - reservedOf(counter);
+    }
+
+    public int threshold(BloodGroup group) {
+        return thresholds.get(group.ordinal());
+    }
+
+    public int record(BloodGroup group, int quantity, BloodTransaction.TransactionType type) {
+        return record(group, quantity, type, null);
+    }
+
+    /**
+     * Applies a transaction to the counter and queues it for write-through.
+     * Removals that would eat into held or missing units are rejected without
+     * touching the counter. The transaction carries {@code idempotencyKey} when given.
+     */
+    public int record(BloodGroup group, int quantity, BloodTransaction.TransactionType type, String idempotencyKey) {
+        int slot = group.ordinal() * STRIDE;
+        long current;
+        long next;
+
+        switch (type) {
+            case DONATION:
+                do {
+                    current = counters.get(slot);
+                    next = pack(quantityOf(current) + quantity, reservedOf(current));
+                } while (!counters.compareAndSet(slot, current, next));
+                break;
+            case REQUEST:
+            case DISCARD:
+                do {
+                    current = counters.get(slot);
+                    if (quantityOf(current) - reservedOf(current) < quantity) {
+                        throw new IllegalStateException(type == BloodTransaction.TransactionType.REQUEST
+                                ? "Insufficient blood units available"
+                                : "Cannot discard more units than available");
+                    }
+                    next = pack(quantityOf(current) - quantity, reservedOf(current));
+                } while (!counters.compareAndSet(slot, current, next));
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid transaction type");
+        }
+
+        enqueue(group, quantity, type, "Inventory updated via " + type, idempotencyKey);
+        changed(group, InventoryEvent.Type.valueOf(type.name()), quantity);
+        return quantityOf(next);
+    }
+
+    /** Moves units from available to held. No transaction is recorded until the hold is committed. */
+    public void reserve(BloodGroup group, int quantity) {
+        int slot = group.ordinal() * STRIDE;
+        long current;
+        long next;
+        do {
+            current = counters.get(slot);
+            if (quantityOf(current) - reservedOf(current) < quantity) {
+                throw new IllegalStateException("Insufficient blood units available");
+            }
+            next = pack(quantityOf(current), reservedOf(current) + quantity);
+        } while (!counters.compareAndSet(slot, current, next));
+        changed(group, InventoryEvent.Type.RESERVED, quantity);
+    }
+
+    /** Returns held units to available stock. */
+    public void release(BloodGroup group, int quantity) {
+        int slot = group.ordinal() * STRIDE;
+        long current;
+        do {
+            current = counters.get(slot);
+        } while (!counters.compareAndSet(slot, current,
+                pack(quantityOf(current), Math.max(0, reservedOf(current) - quantity))));
+        changed(group, InventoryEvent.Type.RELEASED, quantity);
+    }
+
+    /**
+     * Removes held units from stock and records the REQUEST transaction for them. Refused
+     * without touching the counter if fewer units are held or in stock than are committed,
+     * which means the hold was already returned and committing it would take units twice.
+     * <p>
+     * Must run inside the transaction that marks the reservation committed. Unlike other
+     * changes, the stock and the transaction are written in that transaction rather than
+     * through {@link #flush()}, so a crash can never leave a committed reservation whose
+     * units are still in stock. If the transaction rolls back, the units are held again.
+     */
+    public int commit(BloodGroup group, int quantity, Long reservationId) {
+        BloodTransaction transaction = transaction(group, quantity, BloodTransaction.TransactionType.REQUEST,
+                "Reservation " + reservationId + " committed", null);
+        // Takes the row lock before the counter moves, so a flush cannot write a quantity read before this commit
+        inventoryRepository.deductQuantity(group.getLabel(), quantity, transaction.getTimestamp());
+        transactionRepository.save(transaction);
+
+        int slot = group.ordinal() * STRIDE;
+        long current;
+        long next;
+        do {
+            current = counters.get(slot);
+            if (reservedOf(current) < quantity || quantityOf(current) < quantity) {
+                throw new IllegalStateException("Cannot commit reservation " + reservationId + ": " + quantity
+                        + " units of " + group.getLabel() + " are not held");
+            }
+            next = pack(quantityOf(current) - quantity, reservedOf(current) - quantity);
+        } while (!counters.compareAndSet(slot, current, next));
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    lastUpdated.set(group.ordinal(), transaction.getTimestamp());
+                    changed(group, InventoryEvent.Type.COMMITTED, quantity);
+                    return;
+                }
+                long counter;
+                do {
+                    counter = counters.get(slot);
+                } while (!counters.compareAndSet(slot, counter,
+                        pack(quantityOf(counter) + quantity, reservedOf(counter) + quantity)));
+            }
+        });
+        return quantityOf(next);
+    }
+
+    public BloodInventory snapshot(BloodGroup group) {
+        if (!contains(group)) {
+            throw new EntityNotFoundException("Blood group not found: " + group.getLabel());
+        }
+        int i = group.ordinal();
+        return new BloodInventory(ids.get(i), group.getLabel(), quantity(group), lastUpdated.get(i), thresholds.get(i));
+    }
+
+    public List<BloodInventory> snapshotAll() {
+        List<BloodInventory> inventories = new ArrayList<>(BloodGroup.COUNT);
+        for (int i = 0; i < BloodGroup.COUNT; i++) {
+            BloodGroup group = BloodGroup.of(i);
+            if (contains(group)) {
+                inventories.add(snapshot(group));
+            }
+        }
+        return inventories;
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * All registered groups in one payload, tagged with the version it was read at.
+     * The snapshot is rebuilt only when the version has moved since the last call.
+     */
+    public InventorySnapshot versionedSnapshot() {
+        InventorySnapshot cached = lastSnapshot.get();
+        long v = version.get();
+        if (cached != null && cached.getVersion() == v) {
+            return cached;
+        }
+        List<InventorySnapshot.GroupStock> groups = new ArrayList<>(BloodGroup.COUNT);
+        for (int i = 0; i < BloodGroup.COUNT; i++) {
+            BloodGroup group = BloodGroup.of(i);
+            if (contains(group)) {
+                long counter = counters.get(i * STRIDE);
+                groups.add(new InventorySnapshot.GroupStock(group.getLabel(), quantityOf(counter), reservedOf(counter),
+                        quantityOf(counter) - reservedOf(counter), thresholds.get(i)));
+            }
+        }
+        InventorySnapshot snapshot = new InventorySnapshot(v, groups);
+        lastSnapshot.set(snapshot);
+        return snapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:50}")
+    public void flush() {
+        List<BloodTransaction> batch = new ArrayList<>(batchSize);
+        do {
+            batch.clear();
+            BloodTransaction transaction;
+            while (batch.size() < batchSize && (transaction = pending.poll()) != null) {
+                batch.add(transaction);
+            }
+            if (batch.isEmpty() || !write(batch)) {
+                return;
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Assigns the next version to a change and queues it for publication. Called once the
+     * change is applied and queued for write-through or written, and never throws, so the ledger and
+     * the database cannot drift apart over a failed publication.
+     */
+    private void changed(BloodGroup group, InventoryEvent.Type type, int quantity) {
+        changes.offer(new Change(version.incrementAndGet(), group, type, quantity));
+        publishChanges();
+    }
+
+    /**
+     * Publishes queued changes in version order, so a subscriber resuming after the last id
+     * it saw misses nothing. Only one thread drains at a time; a thread arriving meanwhile
+     * leaves its change to the drainer, which loops until nothing new has arrived. Each event
+     * and low-stock check reads the group's counter as it is published, so the last event a
+     * subscriber sees for a group always carries that group's latest state.
+     */
+    private void publishChanges() {
+        if (drainers.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Change change;
+            while ((change = changes.poll()) != null) {
+                early.add(change);
+            }
+            while (!early.isEmpty() && early.peek().version() == nextToPublish) {
+                publish(early.poll());
+                nextToPublish++;
+            }
+            missed = drainers.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void publish(Change change) {
+        int i = change.group().ordinal();
+        long counter = counters.get(i * STRIDE);
+        LocalDateTime now = LocalDateTime.now();
+        lowInventoryAlerts.evaluate(change.group(), quantityOf(counter), thresholds.get(i), now);
+        eventPublisher.publish(new InventoryEvent(change.version(), change.group().getLabel(), change.type(),
+                change.quantity(), quantityOf(counter), reservedOf(counter), quantityOf(counter) - reservedOf(counter), now));
+    }
+
+    private record Change(long version, BloodGroup group, InventoryEvent.Type type, int quantity) {
+    }
+
+    /** Whether a transaction recorded under {@code idempotencyKey} is still waiting to be written. */
+    public boolean isPending(String idempotencyKey) {
+        for (BloodTransaction transaction : pending) {
+            if (idempotencyKey.equals(transaction.getIdempotencyKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void enqueue(BloodGroup group, int quantity, BloodTransaction.TransactionType type, String remarks,
+                         String idempotencyKey) {
+        BloodTransaction transaction = transaction(group, quantity, type, remarks, idempotencyKey);
+        lastUpdated.set(group.ordinal(), transaction.getTimestamp());
+        pending.offer(transaction);
+    }
+
+    private static BloodTransaction transaction(BloodGroup group, int quantity, BloodTransaction.TransactionType type,
+                                                String remarks, String idempotencyKey) {
+        BloodTransaction transaction = new BloodTransaction();
+        transaction.setBloodGroup(group.getLabel());
+        transaction.setQuantity(quantity);
+        transaction.setTransactionType(type);
+        transaction.setRemarks(remarks);
+        transaction.setIdempotencyKey(idempotencyKey);
+        return transaction;
+    }
+
+    private static long pack(int quantity, int reserved) {
+        return ((long) quantity << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    private static int quantityOf(long counter) {
+        return (int) (counter >>> 32);
+    }
+
+    private static int reservedOf(long counter) {
+        return (int) counter;
+    }
+
+    @PreDestroy
+    void drain() {
+        flush();
+        if (!pending.isEmpty()) {
+            logger.error("{} inventory transactions could not be written before shutdown", pending.size());
+        }
+    }
+
+    private boolean write(List<BloodTransaction> batch) {
+        boolean[] touched = new boolean[BloodGroup.COUNT];
+        Set<String> labels = new TreeSet<>();
+        for (BloodTransaction transaction : batch) {
+            touched[BloodGroup.fromLabel(transaction.getBloodGroup()).ordinal()] = true;
+            labels.add(transaction.getBloodGroup());
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Quantities are read under the row locks, so a reservation commit writing the same
+                // rows either lands before the read or waits and deducts from what is written here.
+                inventoryRepository.lockByBloodGroupIn(labels);
+                transactionRepository.saveAll(batch);
+                // Absolute values are written, so a later flush simply overwrites an earlier one.
+                for (int i = 0; i < BloodGroup.COUNT; i++) {
+                    if (touched[i]) {
+                        BloodGroup group = BloodGroup.of(i);
+                        inventoryRepository.updateQuantity(group.getLabel(), quantity(group), lastUpdated.get(i));
+                    }
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("Failed to write {} inventory transactions, will retry", batch.size(), e);
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                BloodTransaction transaction = batch.get(i);
+                transaction.setId(null);
+                pending.offerFirst(transaction);
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.bloodbank.inventory.service;
+
+import com.bloodbank.inventory.model.BloodGroup;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Stock per blood group as gauges, read straight from the ledger's counters on each scrape:
+ * {@code inventory.stock.units} tagged by group and by state (quantity, reserved, available).
+ */
+@Component
+public class InventoryMetrics {
+
+    @Autowired
+    private InventoryLedger ledger;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    void registerMetrics() {
+        for (BloodGroup group : BloodGroup.values()) {
+            gauge(group, "quantity", ledger::quantity);
+            gauge(group, "reserved", ledger::reserved);
+            gauge(group, "available", ledger::available);
+        }
+    }
+
+    private void gauge(BloodGroup group, String state, ToIntFunction<BloodGroup> units) {
+        Gauge.builder("inventory.stock.units", group, units::applyAsInt)
+                .tag("blood.group", group.getLabel())
+                .tag("state", state)
+                .baseUnit("units")
+                .register(meterRegistry);
+    }
+}
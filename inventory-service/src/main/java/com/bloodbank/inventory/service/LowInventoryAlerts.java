@@ -0,0 +1,91 @@
+package com.bloodbank.inventory.service;
+
+import com.bloodbank.inventory.dto.InventoryAlert;
+import com.bloodbank.inventory.model.BloodGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToIntFunction;
+
+/**
+ * Edge-triggered low-stock alerts, evaluated by the ledger as each change is applied.
+ * A group raises one LOW alert when it falls to its threshold and one RECOVERED alert
+ * once it climbs back above threshold plus a hysteresis margin, so stock hovering around
+ * the threshold does not flap. Fired alerts are kept in a fixed-size ring.
+ */
+@Component
+public class LowInventoryAlerts {
+    private static final Logger logger = LoggerFactory.getLogger(LowInventoryAlerts.class);
+
+    private final AtomicReferenceArray<InventoryAlert> active = new AtomicReferenceArray<>(BloodGroup.COUNT);
+    private final InventoryAlert[] history;
+    private final int hysteresis;
+    private long written;
+
+    public LowInventoryAlerts(@Value("${inventory.alerts.history-size:256}") int historySize,
+                              @Value("${inventory.alerts.hysteresis-units:5}") int hysteresis) {
+        this.history = new InventoryAlert[historySize];
+        this.hysteresis = hysteresis;
+    }
+
+    /** Called by one ledger thread at a time, so transitions for one group never race. */
+    void evaluate(BloodGroup group, int quantity, int threshold, LocalDateTime timestamp) {
+        int i = group.ordinal();
+        InventoryAlert current = active.get(i);
+        if (current == null && quantity <= threshold) {
+            InventoryAlert alert = new InventoryAlert(group.getLabel(), InventoryAlert.Type.LOW, quantity, threshold,
+                    lowMessage(group, quantity), timestamp);
+            active.set(i, alert);
+            append(alert);
+            logger.warn(alert.getMessage());
+        } else if (current != null && quantity > threshold + hysteresis) {
+            active.set(i, null);
+            append(new InventoryAlert(group.getLabel(), InventoryAlert.Type.RECOVERED, quantity, threshold,
+                    "INVENTORY RECOVERED: " + group.getLabel() + " is back above minimum threshold. Current quantity: " + quantity,
+                    timestamp));
+        }
+    }
+
+    /**
+     * Groups currently in the LOW state. The quantity and message are filled in from
+     * {@code quantity}, the live stock; the timestamp is when the alert was raised.
+     */
+    public List<InventoryAlert> active(ToIntFunction<BloodGroup> quantity) {
+        List<InventoryAlert> alerts = new ArrayList<>(BloodGroup.COUNT);
+        for (int i = 0; i < BloodGroup.COUNT; i++) {
+            InventoryAlert alert = active.get(i);
+            if (alert != null) {
+                BloodGroup group = BloodGroup.of(i);
+                int current = quantity.applyAsInt(group);
+                alerts.add(new InventoryAlert(alert.getBloodGroup(), alert.getType(), current, alert.getMinThreshold(),
+                        lowMessage(group, current), alert.getTimestamp()));
+            }
+        }
+        return alerts;
+    }
+
+    /** Most recent alerts, newest first. */
+    public synchronized List<InventoryAlert> recent() {
+        int size = (int) Math.min(written, history.length);
+        List<InventoryAlert> alerts = new ArrayList<>(size);
+        for (long n = written - 1; n >= written - size; n--) {
+            alerts.add(history[(int) (n % history.length)]);
+        }
+        return alerts;
+    }
+
+    private static String lowMessage(BloodGroup group, int quantity) {
+        return "LOW INVENTORY ALERT: " + group.getLabel() + " is below minimum threshold. Current quantity: " + quantity;
+    }
+
+    private synchronized void append(InventoryAlert alert) {
+        history[(int) (written % history.length)] = alert;
+        written++;
+    }
+}
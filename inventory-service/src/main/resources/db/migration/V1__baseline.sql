@@ -0,0 +1,29 @@
+CREATE TABLE blood_inventory (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    blood_group   VARCHAR(255) NOT NULL,
+    quantity      INT          NOT NULL,
+    last_updated  DATETIME(6),
+    min_threshold INT          NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_blood_inventory_blood_group UNIQUE (blood_group)
+) ENGINE = InnoDB;
+
+CREATE TABLE blood_transactions (
+    id               BIGINT       NOT NULL AUTO_INCREMENT,
+    blood_group      VARCHAR(255) NOT NULL,
+    quantity         INT          NOT NULL,
+    transaction_type VARCHAR(32)  NOT NULL,
+    timestamp        DATETIME(6)  NOT NULL,
+    remarks          VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE blood_reservations (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    blood_group VARCHAR(255) NOT NULL,
+    quantity    INT          NOT NULL,
+    status      VARCHAR(32)  NOT NULL,
+    created_at  DATETIME(6)  NOT NULL,
+    expires_at  DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,11 @@
+-- findByTimestampBetween and keyset pages on (timestamp, id)
+CREATE INDEX idx_transactions_timestamp_id ON blood_transactions (timestamp, id);
+
+-- findByTransactionType and its keyset pages
+CREATE INDEX idx_transactions_type_timestamp_id ON blood_transactions (transaction_type, timestamp, id);
+
+-- findByBloodGroup
+CREATE INDEX idx_transactions_blood_group ON blood_transactions (blood_group);
+
+-- Reservation reaper: held reservations past their expiry
+CREATE INDEX idx_reservations_status_expires_at ON blood_reservations (status, expires_at);
@@ -0,0 +1,12 @@
+-- Responses to state-changing calls, replayed when a caller retries with the same Idempotency-Key
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(100)  NOT NULL,
+    fingerprint     VARCHAR(255)  NOT NULL,
+    response_status INT,
+    response_body   VARCHAR(4000),
+    created_at      DATETIME(6)   NOT NULL,
+    PRIMARY KEY (idempotency_key)
+) ENGINE = InnoDB;
+
+-- Purge of keys past their retention
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
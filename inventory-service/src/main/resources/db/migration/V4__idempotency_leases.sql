@@ -0,0 +1,10 @@
+-- In-progress claims hold a lease; a claim whose lease ran out was left by a call that never finished
+ALTER TABLE idempotency_keys ADD COLUMN lease_until DATETIME(6);
+UPDATE idempotency_keys SET lease_until = created_at;
+
+-- The Idempotency-Key each change was made under, so a taken-over claim can find what the first call did
+ALTER TABLE blood_reservations ADD COLUMN idempotency_key VARCHAR(100);
+CREATE INDEX idx_reservations_idempotency_key ON blood_reservations (idempotency_key);
+
+ALTER TABLE blood_transactions ADD COLUMN idempotency_key VARCHAR(100);
+CREATE INDEX idx_transactions_idempotency_key ON blood_transactions (idempotency_key);
@@ -0,0 +1,28 @@
+package com.bloodbank.request.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class SchedulerConfig {
+
+    /**
+     * Where blocking JPA calls run off the Netty event loop. On virtual threads each call gets
+     * its own, parked for free while it waits on the database; otherwise the bounded elastic
+     * pool caps how many platform threads those waits can take.
+     */
+    @Bean
+    public Scheduler blockingScheduler(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("blocking-");
+            executor.setVirtualThreads(true);
+            return Schedulers.fromExecutor(executor);
+        }
+        return Schedulers.boundedElastic();
+    }
+}
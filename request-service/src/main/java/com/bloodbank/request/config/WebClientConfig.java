@@ -1,14 +1,88 @@
 package com.bloodbank.request.config;
 
+import io.micrometer.observation.ObservationRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
+    @Value("${inventory.service.url}")
+    private String inventoryServiceUrl;
+
+    @Value("${inventory.client.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${inventory.client.pending-acquire-timeout-ms:2000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${inventory.client.max-idle-time-ms:30000}")
+    private long maxIdleTimeMs;
+
+    @Value("${inventory.client.connect-timeout-ms:1000}")
+    private int connectTimeoutMs;
+
+    @Value("${inventory.client.response-timeout-ms:3000}")
+    private long responseTimeoutMs;
+
+    @Value("${inventory.client.http2:false}")
+    private boolean http2;
+
+    @Value("${inventory.client.load-balanced:false}")
+    private boolean loadBalanced;
+
     @Bean
     public WebClient.Builder webClientBuilder() {
         return WebClient.builder();
     }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider inventoryConnectionProvider() {
+        return ConnectionProvider.builder("inventory")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .evictInBackground(Duration.ofMillis(maxIdleTimeMs))
+                .build();
+    }
+
+    /**
+     * Single client for all calls to inventory-service. Connections are pooled and kept
+     * alive across requests instead of being negotiated per call. When load balanced, the
+     * host in {@code inventory.service.url} is a service id resolved to a live instance.
+     * Each exchange is observed, which records its latency under {@code http.client.requests}.
+     */
+    @Bean
+    public WebClient inventoryWebClient(WebClient.Builder webClientBuilder, ConnectionProvider inventoryConnectionProvider,
+                                        ObjectProvider<LoadBalancedExchangeFilterFunction> loadBalancerFunction,
+                                        ObjectProvider<ObservationRegistry> observationRegistry) {
+        HttpClient httpClient = HttpClient.create(inventoryConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+        if (http2) {
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+
+        WebClient.Builder builder = webClientBuilder.clone()
+                .baseUrl(inventoryServiceUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient));
+        observationRegistry.ifAvailable(builder::observationRegistry);
+        if (loadBalanced) {
+            builder.filter(loadBalancerFunction.getObject());
+        }
+        return builder.build();
+    }
 }
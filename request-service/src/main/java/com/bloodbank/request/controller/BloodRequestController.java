@@ -8,6 +8,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -43,16 +44,18 @@ public class BloodRequestController {
     }
 
     @PostMapping
-    public ResponseEntity<BloodRequest> createRequest(
+    public Mono<ResponseEntity<BloodRequest>> createRequest(
             @Valid @RequestBody BloodRequest request) {
-        return new ResponseEntity<>(requestService.createRequest(request), HttpStatus.CREATED);
+        return requestService.createRequest(request)
+                .map(created -> new ResponseEntity<>(created, HttpStatus.CREATED));
     }
 
     @PutMapping("/{id}/status")
-    public ResponseEntity<BloodRequest> updateRequestStatus(
+    public Mono<ResponseEntity<BloodRequest>> updateRequestStatus(
             @PathVariable(name = "id") Long id,
             @RequestParam(name = "status") BloodRequest.RequestStatus status) {
-        return ResponseEntity.ok(requestService.updateRequestStatus(id, status));
+        return requestService.updateRequestStatus(id, status)
+                .map(ResponseEntity::ok);
     }
 
     @GetMapping("/date-range")
@@ -0,0 +1,16 @@
+package com.bloodbank.request.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class InventoryEvent {
+    private long id;
+    private String bloodGroup;
+    private String type;
+    private int quantity;
+    private int stock;
+    private int reserved;
+    private int available;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,19 @@
+package com.bloodbank.request.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class InventorySnapshot {
+    private long version;
+    private List<GroupStock> groups;
+
+    @Data
+    public static class GroupStock {
+        private String bloodGroup;
+        private int quantity;
+        private int reserved;
+        private int available;
+        private int minThreshold;
+    }
+}
@@ -0,0 +1,13 @@
+package com.bloodbank.request.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class ReservationResponse {
+    private Long id;
+    private String bloodGroup;
+    private Integer quantity;
+    private String status;
+    private LocalDateTime expiresAt;
+}
@@ -1,5 +1,7 @@
 package com.bloodbank.request.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
@@ -58,6 +60,31 @@ public class BloodRequest {
 
     private String remarks;
 
+    /** Set only by the service from the hold it made; never taken from a client. */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "reservation_id")
+    private Long reservationId;
+
+    /** Group the units are drawn from when it differs from {@code bloodGroup}; null otherwise. */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "allocated_group")
+    private String allocatedGroup;
+
+    /**
+     * Idempotency-Key the units for this request are reserved under, suffixed with the group
+     * reserved from. Every attempt on a group uses the same key, so a hold made by an attempt
+     * whose response was lost is handed back rather than made twice.
+     */
+    @JsonIgnore
+    @Column(name = "reservation_key", length = 100)
+    private String reservationKey;
+
+    /** A detached copy, for handing to the {@code requests} cache instead of an entity still in use. */
+    public BloodRequest copy() {
+        return new BloodRequest(id, patientName, bloodGroup, unitsRequired, hospitalName, contactNumber, requestDate,
+                requiredBy, priority, status, remarks, reservationId, allocatedGroup, reservationKey);
+    }
+
     @PrePersist
     protected void onCreate() {
         requestDate = LocalDateTime.now();
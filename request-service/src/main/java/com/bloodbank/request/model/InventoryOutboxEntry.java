@@ -0,0 +1,74 @@
+package com.bloodbank.request.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * An inventory change still owed to inventory-service. Written in the same transaction as
+ * the request status change that causes it and removed once inventory-service has applied it.
+ */
+@Entity
+@Table(name = "inventory_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "request_id", nullable = false)
+    private Long requestId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Operation operation;
+
+    @Column(name = "blood_group", nullable = false)
+    private String bloodGroup;
+
+    @Column(nullable = false)
+    private Integer units;
+
+    @Column(name = "reservation_id")
+    private Long reservationId;
+
+    /** Sent with every attempt, so inventory-service applies the change once however often it is retried. */
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public enum Operation {
+        /** Turn the request's hold into a deduction, or deduct directly if the hold has lapsed. */
+        COMMIT,
+        /** Return the request's hold to stock. */
+        RELEASE,
+        /** Deduct units for a request that never held any. */
+        DEDUCT
+    }
+
+    public enum Status {
+        PENDING,
+        /** Rejected by inventory-service; kept for an operator to look at. */
+        FAILED
+    }
+}
@@ -15,4 +15,5 @@ public interface BloodRequestRepository extends JpaRepository<BloodRequest, Long
     List<BloodRequest> findByPriorityAndStatus(PriorityLevel priority, RequestStatus status);
     List<BloodRequest> findByRequestDateBetween(LocalDateTime start, LocalDateTime end);
     List<BloodRequest> findByHospitalName(String hospitalName);
+    long countByStatusAndPriority(RequestStatus status, PriorityLevel priority);
 }
@@ -0,0 +1,26 @@
+package com.bloodbank.request.repository;
+
+import com.bloodbank.request.model.InventoryOutboxEntry;
+import com.bloodbank.request.model.InventoryOutboxEntry.Status;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InventoryOutboxRepository extends JpaRepository<InventoryOutboxEntry, Long> {
+    List<InventoryOutboxEntry> findByStatusAndNextAttemptAtLessThanEqualOrderById(Status status, LocalDateTime time, Pageable pageable);
+
+    long countByStatus(Status status);
+
+    // Updated in place rather than saved, so an entry another relay has already removed stays removed
+    @Modifying
+    @Query("update InventoryOutboxEntry e set e.status = :status, e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.lastError = :lastError where e.id = :id")
+    int reschedule(@Param("id") Long id, @Param("status") Status status, @Param("attempts") int attempts,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("lastError") String lastError);
+}
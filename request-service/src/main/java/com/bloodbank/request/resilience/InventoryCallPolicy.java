@@ -0,0 +1,119 @@
+package com.bloodbank.request.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Resilience policies for calls to inventory-service, configured under {@code resilience4j.*}.
+ * Every call gets a timeout and goes through a shared bulkhead and circuit breaker, so a slow
+ * or failing inventory-service costs a bounded number of in-flight calls and is then failed
+ * fast instead of tying up request threads. Reads are idempotent and are also retried with
+ * backoff; writes are not, since a timed out write may still have been applied, unless they
+ * carry an Idempotency-Key that makes repeating them safe.
+ * <p>
+ * State, call counts and call latencies are published by resilience4j under
+ * {@code resilience4j.*} in /actuator/metrics.
+ */
+@Component
+public class InventoryCallPolicy {
+
+    static final String INVENTORY = "inventory";
+    static final String READ = "inventory-read";
+    static final String WRITE = "inventory-write";
+    static final String KEYED_WRITE = "inventory-keyed-write";
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    private TimeLimiterRegistry timeLimiterRegistry;
+
+    @Autowired
+    private RetryRegistry retryRegistry;
+
+    private CircuitBreaker circuitBreaker;
+    private Bulkhead bulkhead;
+    private TimeLimiter readTimeLimiter;
+    private TimeLimiter writeTimeLimiter;
+    private Retry readRetry;
+    private Retry keyedWriteRetry;
+
+    @PostConstruct
+    void init() {
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker(INVENTORY);
+        bulkhead = bulkheadRegistry.bulkhead(INVENTORY);
+        readTimeLimiter = timeLimiterRegistry.timeLimiter(READ);
+        writeTimeLimiter = timeLimiterRegistry.timeLimiter(WRITE);
+        readRetry = retryRegistry.retry(READ);
+        keyedWriteRetry = retryRegistry.retry(KEYED_WRITE);
+    }
+
+    /** Idempotent GETs: timed out, guarded, and retried on transient failures. */
+    public <T> Mono<T> read(Mono<T> call) {
+        return call
+                .transformDeferred(TimeLimiterOperator.of(readTimeLimiter))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(RetryOperator.of(readRetry));
+    }
+
+    /** State-changing calls: timed out and guarded, but never repeated. */
+    public <T> Mono<T> write(Mono<T> call) {
+        return call
+                .transformDeferred(TimeLimiterOperator.of(writeTimeLimiter))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    /**
+     * State-changing calls sent with an {@link #IDEMPOTENCY_KEY}: inventory-service applies them
+     * at most once, so a timed out attempt is repeated with the same key and answered with the
+     * outcome of whichever attempt got through.
+     */
+    public <T> Mono<T> keyedWrite(Mono<T> call) {
+        return call
+                .transformDeferred(TimeLimiterOperator.of(writeTimeLimiter))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(RetryOperator.of(keyedWriteRetry));
+    }
+
+    /**
+     * True if the failure means inventory-service could not answer at all, as opposed to
+     * answering with an error, so the caller should fall back to what it last knew.
+     */
+    public static boolean isUnavailable(Throwable failure) {
+        if (failure instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        return failure instanceof CallNotPermittedException
+                || failure instanceof BulkheadFullException
+                || failure instanceof TimeoutException
+                || failure instanceof WebClientRequestException;
+    }
+}
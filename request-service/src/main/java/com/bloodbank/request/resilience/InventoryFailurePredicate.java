@@ -0,0 +1,38 @@
+package com.bloodbank.request.resilience;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * Decides which inventory call failures say something about the health of inventory-service:
+ * timeouts, connection errors and 5xx responses. A 4xx, such as a 409 for a reservation that
+ * cannot be met, is a business answer and neither trips the circuit breaker nor is retried.
+ * Rejections by our own breaker or bulkhead are not retried either, and neither is the 503
+ * for an Idempotency-Key whose first call is still running, which inventory-service marks.
+ */
+public class InventoryFailurePredicate implements Predicate<Throwable> {
+
+    static final String KEY_IN_PROGRESS_HEADER = "Idempotency-Key-In-Progress";
+
+    @Override
+    public boolean test(Throwable failure) {
+        if (failure instanceof CallNotPermittedException || failure instanceof BulkheadFullException) {
+            return false;
+        }
+        if (failure instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() && !isKeyInProgress(failure);
+        }
+        return failure instanceof TimeoutException || failure instanceof WebClientRequestException;
+    }
+
+    /** The 503 for a call whose Idempotency-Key an earlier attempt is still running under. */
+    static boolean isKeyInProgress(Throwable failure) {
+        return failure instanceof WebClientResponseException response
+                && response.getHeaders().getFirst(KEY_IN_PROGRESS_HEADER) != null;
+    }
+}
@@ -0,0 +1,14 @@
+package com.bloodbank.request.resilience;
+
+/**
+ * Retries a keyed write on the failures {@link InventoryFailurePredicate} retries, and also
+ * while inventory-service reports the key still in use: the earlier attempt is still running,
+ * and the retry will be answered with its outcome once it finishes.
+ */
+public class KeyedWriteRetryPredicate extends InventoryFailurePredicate {
+
+    @Override
+    public boolean test(Throwable failure) {
+        return super.test(failure) || isKeyInProgress(failure);
+    }
+}
@@ -1,40 +1,86 @@
 package com.bloodbank.request.service;
 
 import com.bloodbank.request.model.BloodRequest;
+import com.bloodbank.request.model.InventoryOutboxEntry;
 import com.bloodbank.request.repository.BloodRequestRepository;
-import com.bloodbank.request.dto.BloodInventory;
+import com.bloodbank.request.repository.InventoryOutboxRepository;
 import com.bloodbank.request.dto.InventoryResponse;
+import com.bloodbank.request.dto.ReservationResponse;
+import com.bloodbank.request.resilience.InventoryCallPolicy;
 import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.util.UriUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
 
 @Service
 public class BloodRequestService {
+    private static final Logger logger = LoggerFactory.getLogger(BloodRequestService.class);
 
     @Autowired
     private BloodRequestRepository requestRepository;
 
     @Autowired
-    private WebClient.Builder webClientBuilder;
+    @Qualifier("inventoryWebClient")
+    private WebClient inventoryWebClient;
 
-    @Value("${inventory.service.url}")
-    private String inventoryServiceUrl;
+    @Autowired
+    private EmergencyRequestProcessor emergencyRequestProcessor;
+
+    @Autowired
+    private InventoryView inventoryView;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private InventoryCallPolicy inventoryCallPolicy;
+
+    @Autowired
+    private Scheduler blockingScheduler;
+
+    @Autowired
+    private InventoryOutboxRepository outboxRepository;
+
+    @Autowired
+    private RequestScheduler requestScheduler;
+
+    @Autowired
+    private SubstitutionAllocator substitutionAllocator;
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    @Value("${request.allocation.substitution-enabled:true}")
+    private boolean substitutionEnabled;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     public List<BloodRequest> getAllRequests() {
         return requestRepository.findAll();
     }
 
+    /** Cached: the instance returned is shared with every other caller and must not be modified. */
+    @Cacheable(cacheNames = "requests", key = "#id")
     public BloodRequest getRequestById(Long id) {
         return requestRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Blood request not found with id: " + id));
@@ -48,118 +94,205 @@ public class BloodRequestService {
         return requestRepository.findByHospitalName(hospitalName);
     }
 
-    @Transactional
-    public BloodRequest createRequest(BloodRequest request) {
-        // First check if inventory exists
-        BloodInventory inventory = getInventory(request.getBloodGroup());
-        if (inventory == null) {
-            request.setStatus(BloodRequest.RequestStatus.REJECTED);
-            request.setRemarks("Blood group not available in inventory");
-            return requestRepository.save(request);
+    public Mono<BloodRequest> createRequest(BloodRequest request) {
+        // Only the service assigns these; a request that arrives with them set must not keep them
+        request.setId(null);
+        request.setReservationId(null);
+        request.setAllocatedGroup(null);
+        // The id is not known until the request is saved, after its units are reserved
+        request.setReservationKey("reserve-" + UUID.randomUUID());
+        // Pending without a hold: units go to it through the scheduler once stock arrives
+        return decideAndSave(request).doOnNext(requestScheduler::enqueue);
+    }
+
+    private Mono<BloodRequest> decideAndSave(BloodRequest request) {
+        request.setAllocatedGroup(null);
+        // Requests the pushed view already knows cannot be met are decided without a round trip
+        if (inventoryView.isLive()) {
+            Integer available = inventoryView.available(request.getBloodGroup());
+            if ((available == null || available < request.getUnitsRequired()) && substitutionEnabled) {
+                request.setAllocatedGroup(chooseSubstitute(request));
+            }
+            if (request.getAllocatedGroup() == null && available == null) {
+                request.setStatus(BloodRequest.RequestStatus.REJECTED);
+                request.setRemarks("Blood group not available in inventory");
+                return blocking(() -> requestRepository.save(request));
+            }
+            if (request.getAllocatedGroup() == null && available < request.getUnitsRequired()) {
+                markShort(request);
+                return blocking(() -> requestRepository.save(request));
+            }
         }
 
-        // Then check if enough quantity is available
-        if (inventory.getQuantity() >= request.getUnitsRequired() || 
-            request.getPriority() == BloodRequest.PriorityLevel.EMERGENCY) {
+        // Hold the units up front so concurrent requests cannot all claim the same stock
+        return reserveInventory(request)
+                .map(reservation -> {
+                    request.setReservationId(reservation.getId());
+                    request.setStatus(BloodRequest.RequestStatus.PENDING);
+                    if (request.getAllocatedGroup() != null) {
+                        request.setRemarks("Units reserved from " + request.getAllocatedGroup()
+                                + " in place of " + request.getBloodGroup());
+                    }
+                    return request;
+                })
+                // Without a hold the units come from the request's own group, whatever was picked
+                .doOnError(e -> request.setAllocatedGroup(null))
+                .onErrorResume(WebClientResponseException.Conflict.class, e -> {
+                    markShort(request);
+                    return Mono.just(request);
+                })
+                // A hold made by an attempt that timed out is picked up by the scheduler under the same key
+                .onErrorResume(InventoryCallPolicy::isUnavailable, e -> {
+                    logger.warn("Inventory unavailable, deciding request from last-known stock: {}", e.toString());
+                    decideFromLastKnownStock(request);
+                    return Mono.just(request);
+                })
+                .onErrorResume(e -> {
+                    logger.error("Error reserving inventory for a {} request", request.getBloodGroup(), e);
+                    request.setStatus(BloodRequest.RequestStatus.REJECTED);
+                    request.setRemarks("Blood group not available in inventory");
+                    return Mono.just(request);
+                })
+                .flatMap(r -> blocking(() -> requestRepository.save(r))
+                        .onErrorResume(e -> r.getReservationId() == null
+                                ? Mono.error(e)
+                                : releaseReservation(r.getReservationId()).then(Mono.error(e))));
+    }
+
+    /**
+     * A compatible group to reserve from when the request's own group is short, or null. The
+     * choice is made against the pushed view, so the reservation may still be refused.
+     */
+    private String chooseSubstitute(BloodRequest request) {
+        int[] stock = new int[SubstitutionAllocator.BLOOD_GROUPS.size()];
+        for (int group = 0; group < stock.length; group++) {
+            Integer available = inventoryView.available(SubstitutionAllocator.BLOOD_GROUPS.get(group));
+            stock[group] = available != null ? available : 0;
+        }
+        int group = substitutionAllocator.choose(SubstitutionAllocator.indexOf(request.getBloodGroup()),
+                request.getUnitsRequired(), stock);
+        // Only called when the own group is short, so any group chosen is a substitute
+        return group != SubstitutionAllocator.NONE ? SubstitutionAllocator.BLOOD_GROUPS.get(group) : null;
+    }
+
+    /**
+     * Used when inventory-service cannot be reached to hold units. A request the last-known
+     * stock could not meet is treated as short; anything else stays pending without a hold,
+     * and is checked against inventory again when it is fulfilled or allocated.
+     */
+    private void decideFromLastKnownStock(BloodRequest request) {
+        Integer available = inventoryView.available(request.getBloodGroup());
+        if (available != null && available < request.getUnitsRequired()) {
+            markShort(request);
+        } else {
+            request.setStatus(BloodRequest.RequestStatus.PENDING);
+            request.setRemarks("Inventory unavailable, units not yet reserved");
+        }
+    }
+
+    private void markShort(BloodRequest request) {
+        if (request.getPriority() == BloodRequest.PriorityLevel.EMERGENCY) {
             request.setStatus(BloodRequest.RequestStatus.PENDING);
         } else {
             request.setStatus(BloodRequest.RequestStatus.REJECTED);
             request.setRemarks("Insufficient blood units available");
         }
-
-        return requestRepository.save(request);
     }
 
-    @Transactional
-    public BloodRequest updateRequestStatus(Long id, BloodRequest.RequestStatus newStatus) {
-        BloodRequest request = getRequestById(id);
-        
-        if (newStatus == BloodRequest.RequestStatus.FULFILLED) {
-            updateInventory(request.getBloodGroup(), request.getUnitsRequired());
-        }
-        
-        request.setStatus(newStatus);
-        return requestRepository.save(request);
+    /**
+     * Changes the status and queues the inventory change it implies in the same transaction.
+     * Inventory-service is not called here; {@link InventoryOutboxRelay} delivers the change
+     * once the status change has committed. Setting the status a request already has changes
+     * nothing and queues nothing.
+     */
+    public Mono<BloodRequest> updateRequestStatus(Long id, BloodRequest.RequestStatus newStatus) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        // Read from the database rather than the cache: the entity is modified below and a
+        // cached instance is shared with concurrent readers
+        return blocking(() -> transactionTemplate.execute(status -> {
+                    BloodRequest request = requestRepository.findById(id)
+                            .orElseThrow(() -> new EntityNotFoundException("Blood request not found with id: " + id));
+                    if (request.getStatus() == newStatus) {
+                        return request;
+                    }
+                    InventoryOutboxEntry change = inventoryChange(request, newStatus);
+                    if (change != null) {
+                        outboxRepository.save(change);
+                    }
+                    if (newStatus == BloodRequest.RequestStatus.FULFILLED) {
+                        requestMetrics.fulfilled(request);
+                    }
+                    request.setStatus(newStatus);
+                    return requestRepository.save(request);
+                }))
+                .doOnNext(saved -> {
+                    requestScheduler.dequeue(saved.getId());
+                    cacheManager.getCache("requests").put(saved.getId(), saved.copy());
+                });
     }
 
     public List<BloodRequest> getRequestsByDateRange(LocalDateTime start, LocalDateTime end) {
         return requestRepository.findByRequestDateBetween(start, end);
     }
 
-    private BloodInventory getInventory(String bloodGroup) {
-        try {
-            return webClientBuilder.build()
-                    .get()
-                    .uri(inventoryServiceUrl + "/api/inventory/{bloodGroup}", bloodGroup)
-                    .retrieve()
-                    .bodyToMono(BloodInventory.class)
-                    .doOnError(e -> System.err.println("Error getting inventory: " + e.getMessage()))
-                    .block();
-        } catch (Exception e) {
-            System.err.println("Error getting inventory: " + e.getMessage());
-            e.printStackTrace();
+    private static InventoryOutboxEntry inventoryChange(BloodRequest request, BloodRequest.RequestStatus newStatus) {
+        InventoryOutboxEntry.Operation operation;
+        if (newStatus == BloodRequest.RequestStatus.FULFILLED) {
+            operation = request.getReservationId() != null
+                    ? InventoryOutboxEntry.Operation.COMMIT
+                    : InventoryOutboxEntry.Operation.DEDUCT;
+        } else if (request.getReservationId() != null
+                && (newStatus == BloodRequest.RequestStatus.REJECTED || newStatus == BloodRequest.RequestStatus.CANCELLED)) {
+            operation = InventoryOutboxEntry.Operation.RELEASE;
+        } else {
             return null;
         }
+        InventoryOutboxEntry entry = new InventoryOutboxEntry();
+        entry.setRequestId(request.getId());
+        entry.setOperation(operation);
+        entry.setBloodGroup(request.getAllocatedGroup() != null ? request.getAllocatedGroup() : request.getBloodGroup());
+        entry.setUnits(request.getUnitsRequired());
+        entry.setReservationId(request.getReservationId());
+        // Derived from the transition, so repeating it can never apply the change twice
+        entry.setIdempotencyKey("request-" + request.getId() + "-" + newStatus);
+        return entry;
     }
 
-    private void updateInventory(String bloodGroup, int units) {
-        try {
-            WebClient client = WebClient.builder()
-                .baseUrl(inventoryServiceUrl)
-                .build();
-
-            client.post()
-                .uri("/api/inventory/{bloodGroup}/request", bloodGroup)
-                .bodyValue(Map.of("quantity", units))
+    private Mono<ReservationResponse> reserveInventory(BloodRequest request) {
+        Map<String, Long> body = new HashMap<>();
+        body.put("quantity", request.getUnitsRequired().longValue());
+        if (request.getRequiredBy() != null) {
+            body.put("ttlSeconds", Duration.between(LocalDateTime.now(), request.getRequiredBy()).getSeconds());
+        }
+        String group = request.getAllocatedGroup() != null ? request.getAllocatedGroup() : request.getBloodGroup();
+        // Keyed per group, as inventory-service refuses a key reused for a different call
+        return inventoryCallPolicy.keyedWrite(inventoryWebClient.post()
+                .uri("/api/inventory/{bloodGroup}/reserve", group)
+                .header(InventoryCallPolicy.IDEMPOTENCY_KEY, request.getReservationKey() + "-" + group)
+                .bodyValue(body)
                 .retrieve()
-                .bodyToMono(Void.class)
+                .bodyToMono(ReservationResponse.class));
+    }
+
+    private Mono<Void> releaseReservation(Long reservationId) {
+        return inventoryCallPolicy.write(inventoryWebClient.post()
+                        .uri("/api/inventory/reservations/{id}/release", reservationId)
+                        .retrieve()
+                        .toBodilessEntity())
+                .then()
                 .onErrorResume(e -> {
-                    System.err.println("Failed to update inventory: " + e.getMessage());
-                    return Mono.error(new RuntimeException("Failed to update inventory: " + e.getMessage()));
-                })
-                .block();
-        } catch (Exception e) {
-            System.err.println("Failed to update inventory: " + e.getMessage());
-            throw new RuntimeException("Failed to update inventory: " + e.getMessage());
-        }
+                    // Holds that cannot be released here are returned by the inventory reaper once they expire
+                    logger.warn("Failed to release reservation {}: {}", reservationId, e.toString());
+                    return Mono.empty();
+                });
     }
 
     public List<BloodRequest> processEmergencyRequests() {
-        List<BloodRequest> emergencyRequests = requestRepository.findByPriorityAndStatus(
-                BloodRequest.PriorityLevel.EMERGENCY,
-                BloodRequest.RequestStatus.PENDING
-        );
-
-        List<BloodRequest> processedRequests = new ArrayList<>();
-        for (BloodRequest request : emergencyRequests) {
-            BloodInventory inventory = getInventory(request.getBloodGroup());
-            if (inventory != null && inventory.getQuantity() >= request.getUnitsRequired()) {
-                request = updateRequestStatus(request.getId(), BloodRequest.RequestStatus.APPROVED);
-                processedRequests.add(request);
-            }
-        }
-        return processedRequests;
-    }
-
-    private boolean checkInventoryAvailability(String bloodGroup, int unitsRequired) {
-        try {
-            System.out.println("Checking inventory for blood group: " + bloodGroup + ", units required: " + unitsRequired);
-            String encodedBloodGroup = UriUtils.encodePathSegment(bloodGroup, StandardCharsets.UTF_8);
-            Boolean available = webClientBuilder.build()
-                    .get()
-                    .uri(uriBuilder -> uriBuilder
-                        .path(inventoryServiceUrl + "/{bloodGroup}/check")
-                        .queryParam("quantity", unitsRequired)
-                        .build(encodedBloodGroup))
-                    .retrieve()
-                    .bodyToMono(Boolean.class)
-                    .onErrorReturn(false)
-                    .block();
-            System.out.println("Availability check result: " + available);
-            return available != null && available;
-        } catch (Exception e) {
-            System.err.println("Error checking inventory availability: " + e.getMessage());
-            return false;
-        }
+        return emergencyRequestProcessor.process();
+    }
+
+    /** JPA calls stay blocking, so they run on the blocking scheduler instead of a Netty event loop. */
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(blockingScheduler);
     }
 }
@@ -0,0 +1,287 @@
+package com.bloodbank.request.service;
+
+import com.bloodbank.request.dto.InventorySnapshot;
+import com.bloodbank.request.dto.ReservationResponse;
+import com.bloodbank.request.model.BloodRequest;
+import com.bloodbank.request.repository.BloodRequestRepository;
+import com.bloodbank.request.resilience.InventoryCallPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approves pending emergency requests in one pass: stock for all blood groups comes
+ * from the pushed inventory view (or a single snapshot call while it is down), the whole
+ * backlog is allocated at once by {@link SubstitutionAllocator#allocate}, so a request whose
+ * own group is short can be given a compatible one, and the resulting status changes are
+ * written with one batched UPDATE.
+ * <p>
+ * The stock figures only pick the candidates. Units are then reserved for each candidate
+ * that holds none yet, under its reservation key, and only requests holding units are
+ * approved; the rest stay pending and queued with the scheduler.
+ */
+@Component
+public class EmergencyRequestProcessor {
+    private static final Logger logger = LoggerFactory.getLogger(EmergencyRequestProcessor.class);
+
+    static final Comparator<BloodRequest> ALLOCATION_ORDER = Comparator
+            .comparing(BloodRequest::getPriority)
+            .thenComparing(BloodRequest::getRequiredBy, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(BloodRequest::getRequestDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(BloodRequest::getId);
+
+    // Remarks and allocated_group are only set for requests given their hold here. They are
+    // assigned before reservation_id, since MariaDB applies the assignments in order.
+    private static final String APPROVE_SQL =
+            "update blood_requests set status = 'APPROVED', " +
+            "remarks = case when reservation_id is null then ? else remarks end, " +
+            "allocated_group = case when reservation_id is null then ? else allocated_group end, reservation_id = ? " +
+            "where id = ? and status = 'PENDING' and (reservation_id is null or reservation_id = ?)";
+
+    private static final String RESERVATION_SQL = "select reservation_id from blood_requests where id = ?";
+
+    @Autowired
+    private BloodRequestRepository requestRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InventoryView inventoryView;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    @Qualifier("inventoryWebClient")
+    private WebClient inventoryWebClient;
+
+    @Autowired
+    private InventoryCallPolicy inventoryCallPolicy;
+
+    @Autowired
+    private RequestScheduler requestScheduler;
+
+    @Autowired
+    private SubstitutionAllocator substitutionAllocator;
+
+    @Value("${request.emergency.reserve-concurrency:8}")
+    private int reserveConcurrency;
+
+    @Value("${request.allocation.substitution-enabled:true}")
+    private boolean substitutionEnabled;
+
+    public List<BloodRequest> process() {
+        List<BloodRequest> pending = requestRepository.findByPriorityAndStatus(
+                BloodRequest.PriorityLevel.EMERGENCY,
+                BloodRequest.RequestStatus.PENDING
+        );
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+
+        // Group each candidate without a hold draws from; the ones holding units keep theirs
+        Map<Long, String> groups = new HashMap<>();
+        List<BloodRequest> candidates = allocate(pending, fetchAvailability(), groups);
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        // Reservations made here are kept apart from the entities until the batch commits
+        Map<Long, Long> reserved = new ConcurrentHashMap<>();
+        List<BloodRequest> approved = Flux.fromIterable(candidates)
+                .flatMap(request -> request.getReservationId() != null
+                        ? Mono.just(request)
+                        : reserve(request, groups.get(request.getId())).map(reservation -> {
+                            reserved.put(request.getId(), reservation.getId());
+                            return request;
+                        }), reserveConcurrency)
+                .collectList()
+                .block();
+        if (approved == null || approved.isEmpty()) {
+            return List.of();
+        }
+
+        // Statuses are flipped on the loaded entities only after the batch commits, so
+        // Hibernate never sees them as dirty and issues row-by-row updates of its own
+        int[][] counts = new TransactionTemplate(transactionManager).execute(status ->
+                jdbcTemplate.batchUpdate(APPROVE_SQL, approved, approved.size(), (ps, request) -> {
+                    long reservationId = request.getReservationId() != null
+                            ? request.getReservationId()
+                            : reserved.get(request.getId());
+                    String substitute = substitute(request, groups.get(request.getId()));
+                    ps.setString(1, substitute != null ? substituteRemarks(request, substitute) : null);
+                    ps.setString(2, substitute);
+                    ps.setLong(3, reservationId);
+                    ps.setLong(4, request.getId());
+                    ps.setLong(5, reservationId);
+                }));
+        List<BloodRequest> processed = new ArrayList<>(approved.size());
+        Cache cache = cacheManager.getCache("requests");
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                BloodRequest request = approved.get(i++);
+                Long reservationId = reserved.get(request.getId());
+                // Anything updated concurrently since it was read is left to whoever changed it
+                if (count != 0) {
+                    if (reservationId != null) {
+                        String substitute = substitute(request, groups.get(request.getId()));
+                        request.setReservationId(reservationId);
+                        request.setAllocatedGroup(substitute);
+                        request.setRemarks(substitute != null ? substituteRemarks(request, substitute) : null);
+                    }
+                    request.setStatus(BloodRequest.RequestStatus.APPROVED);
+                    cache.put(request.getId(), request.copy());
+                    requestScheduler.dequeue(request.getId());
+                    processed.add(request);
+                } else if (reservationId != null) {
+                    releaseUnlessAssigned(request.getId(), reservationId);
+                }
+            }
+        }
+        processed.sort(ALLOCATION_ORDER);
+        return processed;
+    }
+
+    /**
+     * Greedy allocation in priority, deadline and arrival order across all groups. Requests
+     * that already hold a reservation are picked without drawing on the stock; each other
+     * request picked has the group its units come from put in {@code groups}, which is its
+     * own unless substitution is enabled and its own is short.
+     */
+    private List<BloodRequest> allocate(List<BloodRequest> requests, Map<String, Integer> available,
+                                        Map<Long, String> groups) {
+        requests.sort(ALLOCATION_ORDER);
+        int[] stock = new int[SubstitutionAllocator.BLOOD_GROUPS.size()];
+        for (int group = 0; group < stock.length; group++) {
+            stock[group] = Math.max(0, available.getOrDefault(SubstitutionAllocator.BLOOD_GROUPS.get(group), 0));
+        }
+        List<BloodRequest> unheld = new ArrayList<>(requests.size());
+        for (BloodRequest request : requests) {
+            if (request.getReservationId() == null) {
+                unheld.add(request);
+            }
+        }
+        int[] recipients = new int[unheld.size()];
+        int[] units = new int[unheld.size()];
+        int[] assigned = new int[unheld.size()];
+        for (int i = 0; i < unheld.size(); i++) {
+            recipients[i] = SubstitutionAllocator.indexOf(unheld.get(i).getBloodGroup());
+            units[i] = unheld.get(i).getUnitsRequired();
+        }
+        if (substitutionEnabled) {
+            substitutionAllocator.allocate(recipients, units, unheld.size(), stock, assigned);
+        } else {
+            for (int i = 0; i < unheld.size(); i++) {
+                assigned[i] = stock[recipients[i]] >= units[i] ? recipients[i] : SubstitutionAllocator.NONE;
+                if (assigned[i] != SubstitutionAllocator.NONE) {
+                    stock[assigned[i]] -= units[i];
+                }
+            }
+        }
+        for (int i = 0; i < unheld.size(); i++) {
+            if (assigned[i] != SubstitutionAllocator.NONE) {
+                groups.put(unheld.get(i).getId(), SubstitutionAllocator.BLOOD_GROUPS.get(assigned[i]));
+            }
+        }
+        List<BloodRequest> approved = new ArrayList<>();
+        for (BloodRequest request : requests) {
+            if (request.getReservationId() != null || groups.containsKey(request.getId())) {
+                approved.add(request);
+            }
+        }
+        return approved;
+    }
+
+    /** The group a request's units are drawn from in place of its own, or null if it is its own. */
+    private static String substitute(BloodRequest request, String group) {
+        return group != null && !group.equals(request.getBloodGroup()) ? group : null;
+    }
+
+    private static String substituteRemarks(BloodRequest request, String substitute) {
+        return "Units reserved from " + substitute + " in place of " + request.getBloodGroup();
+    }
+
+    /**
+     * Holds the request's units in {@code group} under its reservation key, the one the
+     * scheduler uses too, so the two racing for the same request and group end up with the
+     * same hold. Empty if it could not be made.
+     */
+    private Mono<ReservationResponse> reserve(BloodRequest request, String group) {
+        Map<String, Long> body = new HashMap<>();
+        body.put("quantity", request.getUnitsRequired().longValue());
+        if (request.getRequiredBy() != null) {
+            long ttl = Duration.between(LocalDateTime.now(), request.getRequiredBy()).getSeconds();
+            if (ttl > 0) {
+                body.put("ttlSeconds", ttl);
+            }
+        }
+        return inventoryCallPolicy.keyedWrite(inventoryWebClient.post()
+                        .uri("/api/inventory/{bloodGroup}/reserve", group)
+                        .header(InventoryCallPolicy.IDEMPOTENCY_KEY, request.getReservationKey() + "-" + group)
+                        .bodyValue(body)
+                        .retrieve()
+                        .bodyToMono(ReservationResponse.class))
+                .onErrorResume(e -> {
+                    // Left pending: the scheduler reserves for it once stock is there
+                    logger.info("Could not reserve units for emergency request {}: {}", request.getId(), e.toString());
+                    return Mono.empty();
+                });
+    }
+
+    /** Releases a hold for a request that was decided meanwhile, unless the scheduler assigned that same hold to it. */
+    private void releaseUnlessAssigned(Long requestId, Long reservationId) {
+        Long assigned = jdbcTemplate.queryForObject(RESERVATION_SQL, Long.class, requestId);
+        if (reservationId.equals(assigned)) {
+            return;
+        }
+        // A hold that cannot be released here is returned by the inventory reaper once it expires
+        inventoryCallPolicy.write(inventoryWebClient.post()
+                        .uri("/api/inventory/reservations/{id}/release", reservationId)
+                        .retrieve()
+                        .toBodilessEntity())
+                .subscribe(response -> { }, e -> { });
+    }
+
+    private Map<String, Integer> fetchAvailability() {
+        if (inventoryView.isLive()) {
+            return inventoryView.availableByGroup();
+        }
+        inventoryCallPolicy.read(inventoryWebClient.get()
+                        .uri("/api/inventory/snapshot")
+                        .retrieve()
+                        .bodyToMono(InventorySnapshot.class))
+                .doOnNext(inventoryView::refresh)
+                .onErrorResume(e -> {
+                    // Allocate against the last-known stock; reserved requests are approved regardless
+                    logger.warn("Error getting inventory, using last-known stock: {}", e.toString());
+                    return Mono.empty();
+                })
+                .block();
+        return inventoryView.availableByGroup();
+    }
+}
@@ -0,0 +1,191 @@
+package com.bloodbank.request.service;
+
+import com.bloodbank.request.dto.ReservationResponse;
+import com.bloodbank.request.model.InventoryOutboxEntry;
+import com.bloodbank.request.model.InventoryOutboxEntry.Status;
+import com.bloodbank.request.repository.InventoryOutboxRepository;
+import com.bloodbank.request.resilience.InventoryCallPolicy;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends the inventory changes queued in the outbox to inventory-service. Due entries are
+ * drained in batches, several calls at a time, each carrying the entry's idempotency key, so
+ * a change that is retried after a timeout, or picked up by two instances at once, is still
+ * only applied once. Failures that may clear up are retried with exponential backoff; a
+ * change inventory-service refuses is marked FAILED and left in the table.
+ */
+@Component
+public class InventoryOutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private InventoryOutboxRepository outboxRepository;
+
+    @Autowired
+    @Qualifier("inventoryWebClient")
+    private WebClient inventoryWebClient;
+
+    @Autowired
+    private InventoryCallPolicy inventoryCallPolicy;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${inventory.outbox.concurrency:8}")
+    private int concurrency;
+
+    @Value("${inventory.outbox.retry-base-ms:1000}")
+    private long retryBaseMs;
+
+    @Value("${inventory.outbox.retry-max-ms:300000}")
+    private long retryMaxMs;
+
+    // Counted by countPending() rather than on each scrape, so scrapes never reach the database
+    private final AtomicLong pending = new AtomicLong();
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("inventory.outbox.pending", pending, AtomicLong::get).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.outbox.pending-refresh-ms:15000}")
+    public void countPending() {
+        pending.set(outboxRepository.countByStatus(Status.PENDING));
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.outbox.poll-interval-ms:500}")
+    public void relay() {
+        List<InventoryOutboxEntry> batch;
+        do {
+            batch = outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderById(
+                    Status.PENDING, LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Outcome> outcomes = Flux.fromIterable(batch)
+                    .flatMap(entry -> send(entry)
+                            .thenReturn(new Outcome(entry, Result.SENT, null))
+                            .onErrorResume(e -> Mono.just(InventoryCallPolicy.isUnavailable(e)
+                                    ? new Outcome(entry, Result.RETRY, e.getMessage())
+                                    : new Outcome(entry, Result.FAILED, e.getMessage()))),
+                            concurrency)
+                    .collectList()
+                    .block();
+            record(outcomes);
+        } while (batch.size() == batchSize);
+    }
+
+    private Mono<Void> send(InventoryOutboxEntry entry) {
+        String key = entry.getIdempotencyKey();
+        return switch (entry.getOperation()) {
+            case COMMIT -> post("/api/inventory/reservations/{id}/commit", key, null, entry.getReservationId())
+                    .onErrorResume(WebClientResponseException.Conflict.class, e -> commitRefused(entry, key));
+            // Anything but HELD means the units are already back in stock
+            case RELEASE -> post("/api/inventory/reservations/{id}/release", key, null, entry.getReservationId())
+                    .onErrorResume(WebClientResponseException.Conflict.class, e -> Mono.empty())
+                    .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+            case DEDUCT -> deduct(entry, key);
+        };
+    }
+
+    /**
+     * A commit is refused with 409 once the hold is no longer HELD. The units are only taken
+     * directly if the hold lapsed or was released; COMMITTED means an earlier attempt, whose
+     * stored response has since been purged, already took them.
+     */
+    private Mono<Void> commitRefused(InventoryOutboxEntry entry, String key) {
+        return inventoryCallPolicy.read(inventoryWebClient.get()
+                        .uri("/api/inventory/reservations/{id}", entry.getReservationId())
+                        .retrieve()
+                        .bodyToMono(ReservationResponse.class))
+                .flatMap(reservation -> switch (reservation.getStatus()) {
+                    case "EXPIRED", "RELEASED" -> deduct(entry, key + "-deduct");
+                    case "COMMITTED" -> Mono.<Void>empty();
+                    default -> Mono.<Void>error(new IllegalStateException("Reservation " + reservation.getId()
+                            + " is " + reservation.getStatus() + " but its commit was refused"));
+                });
+    }
+
+    private Mono<Void> deduct(InventoryOutboxEntry entry, String key) {
+        return post("/api/inventory/{bloodGroup}/request", key, Map.of("quantity", entry.getUnits()), entry.getBloodGroup());
+    }
+
+    private Mono<Void> post(String uri, String idempotencyKey, Object body, Object uriVariable) {
+        WebClient.RequestBodySpec request = inventoryWebClient.post()
+                .uri(uri, uriVariable)
+                .header(InventoryCallPolicy.IDEMPOTENCY_KEY, idempotencyKey);
+        return inventoryCallPolicy.write((body != null ? request.bodyValue(body) : request)
+                .retrieve()
+                .toBodilessEntity())
+                .then();
+    }
+
+    private void record(List<Outcome> outcomes) {
+        List<Long> sent = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (Outcome outcome : outcomes) {
+                InventoryOutboxEntry entry = outcome.entry();
+                int attempts = entry.getAttempts() + 1;
+                switch (outcome.result()) {
+                    case SENT -> sent.add(entry.getId());
+                    case RETRY -> outboxRepository.reschedule(entry.getId(), Status.PENDING, attempts,
+                            now.plusNanos(backoffMs(attempts) * 1_000_000), truncate(outcome.error()));
+                    case FAILED -> outboxRepository.reschedule(entry.getId(), Status.FAILED, attempts,
+                            now, truncate(outcome.error()));
+                }
+                meterRegistry.counter("inventory.outbox.relayed",
+                        "operation", entry.getOperation().name(),
+                        "result", outcome.result().name().toLowerCase()).increment();
+            }
+            if (!sent.isEmpty()) {
+                outboxRepository.deleteAllByIdInBatch(sent);
+            }
+        });
+    }
+
+    private long backoffMs(int attempts) {
+        long delay = retryBaseMs << Math.min(attempts - 1, 20);
+        return Math.min(delay, retryMaxMs);
+    }
+
+    private static String truncate(String error) {
+        return error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private enum Result {
+        SENT,
+        RETRY,
+        FAILED
+    }
+
+    private record Outcome(InventoryOutboxEntry entry, Result result, String error) {
+    }
+}
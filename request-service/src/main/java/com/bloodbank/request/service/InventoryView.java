@@ -0,0 +1,205 @@
+package com.bloodbank.request.service;
+
+import com.bloodbank.request.dto.InventoryEvent;
+import com.bloodbank.request.dto.InventorySnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClientRequest;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Local copy of inventory-service stock, kept current by its change stream. Callers use it
+ * to answer "is there enough?" without a round trip; it reports itself as not live while the
+ * stream is down, and callers then fall back to asking inventory-service directly. The last
+ * values seen stay in place meanwhile, as the fallback for when inventory-service cannot be
+ * reached at all.
+ */
+@Component
+public class InventoryView {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryView.class);
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> EVENT_TYPE =
+            new ParameterizedTypeReference<>() {};
+
+    private final Map<String, Stock> stock = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, Integer>> listeners = new CopyOnWriteArrayList<>();
+    private volatile long lastEventId = -1;
+    private volatile boolean live;
+    private Disposable subscription;
+
+    @Autowired
+    @Qualifier("inventoryWebClient")
+    private WebClient inventoryWebClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${inventory.events.enabled:true}")
+    private boolean enabled;
+
+    @Value("${inventory.events.idle-timeout-seconds:45}")
+    private long idleTimeoutSeconds;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribe() {
+        if (!enabled) {
+            return;
+        }
+        subscription = Flux.defer(this::connect)
+                .doOnNext(this::apply)
+                .doOnError(e -> {
+                    live = false;
+                    logger.warn("Inventory event stream failed: {}", e.toString());
+                })
+                .doOnComplete(() -> live = false)
+                .repeatWhen(completions -> completions.delayElements(Duration.ofSeconds(1)))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    public boolean isLive() {
+        return live;
+    }
+
+    /** Units available for new requests, or null if the group is not stocked at all. */
+    public Integer available(String bloodGroup) {
+        Stock current = stock.get(bloodGroup);
+        return current != null ? current.available() : null;
+    }
+
+    /** Called with a group and its available units whenever the stream reports a new level. */
+    public void addListener(BiConsumer<String, Integer> listener) {
+        listeners.add(listener);
+    }
+
+    public Map<String, Integer> availableByGroup() {
+        Map<String, Integer> available = new HashMap<>();
+        stock.forEach((group, current) -> available.put(group, current.available()));
+        return available;
+    }
+
+    /**
+     * Folds in a snapshot fetched directly while the stream is down, so the last-known stock
+     * stays as fresh as possible. Groups the stream has already moved past are left alone.
+     */
+    public void refresh(InventorySnapshot snapshot) {
+        for (InventorySnapshot.GroupStock group : snapshot.getGroups()) {
+            stock.compute(group.getBloodGroup(), (name, current) ->
+                    current == null || current.eventId() <= snapshot.getVersion()
+                            ? new Stock(snapshot.getVersion(), group.getAvailable())
+                            : current);
+        }
+    }
+
+    private Flux<ServerSentEvent<String>> connect() {
+        long resumeFrom = lastEventId;
+        return inventoryWebClient.get()
+                .uri("/api/inventory/events")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .headers(headers -> {
+                    if (resumeFrom >= 0) {
+                        headers.set("Last-Event-ID", String.valueOf(resumeFrom));
+                    }
+                })
+                // The shared client times out idle reads quickly; the stream is idle between heartbeats
+                .httpRequest(request -> {
+                    HttpClientRequest nativeRequest = request.getNativeRequest();
+                    nativeRequest.responseTimeout(Duration.ofSeconds(idleTimeoutSeconds));
+                })
+                .retrieve()
+                .bodyToFlux(EVENT_TYPE);
+    }
+
+    private void apply(ServerSentEvent<String> event) {
+        if (event.data() == null || event.event() == null) {
+            // Heartbeat on a resumed stream: the view is current as long as it keeps arriving
+            if (lastEventId >= 0) {
+                live = true;
+            }
+            return;
+        }
+        try {
+            if ("snapshot".equals(event.event())) {
+                InventorySnapshot snapshot = objectMapper.readValue(event.data(), InventorySnapshot.class);
+                stock.clear();
+                for (InventorySnapshot.GroupStock group : snapshot.getGroups()) {
+                    stock.put(group.getBloodGroup(), new Stock(snapshot.getVersion(), group.getAvailable()));
+                }
+                lastEventId = snapshot.getVersion();
+                live = true;
+                for (InventorySnapshot.GroupStock group : snapshot.getGroups()) {
+                    notifyListeners(group.getBloodGroup(), group.getAvailable());
+                }
+            } else if ("change".equals(event.event())) {
+                InventoryEvent change = objectMapper.readValue(event.data(), InventoryEvent.class);
+                if (change.getId() <= lastEventId) {
+                    return;
+                }
+                // Ids are consecutive and sent in order; a gap means events were lost on the way
+                if (lastEventId >= 0 && change.getId() != lastEventId + 1) {
+                    throw new MissedEventsException(lastEventId, change.getId());
+                }
+                stock.compute(change.getBloodGroup(), (group, current) ->
+                        current == null || current.eventId() < change.getId()
+                                ? new Stock(change.getId(), change.getAvailable())
+                                : current);
+                lastEventId = change.getId();
+                live = true;
+                notifyListeners(change.getBloodGroup(), available(change.getBloodGroup()));
+            }
+        } catch (MissedEventsException e) {
+            // Ends the stream; it reconnects from the last event applied and is replayed or resynchronised
+            throw e;
+        } catch (Exception e) {
+            logger.warn("Unreadable inventory event {}", event.id(), e);
+        }
+    }
+
+    private void notifyListeners(String bloodGroup, Integer available) {
+        for (BiConsumer<String, Integer> listener : listeners) {
+            try {
+                listener.accept(bloodGroup, available);
+            } catch (RuntimeException e) {
+                logger.error("Inventory listener failed for {}", bloodGroup, e);
+            }
+        }
+    }
+
+    private record Stock(long eventId, int available) {
+    }
+
+    private static class MissedEventsException extends IllegalStateException {
+        MissedEventsException(long lastEventId, long received) {
+            super("Inventory events " + (lastEventId + 1) + " to " + (received - 1) + " were not received");
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.bloodbank.request.service;
+
+import com.bloodbank.request.model.BloodRequest;
+import com.bloodbank.request.repository.BloodRequestRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Request-level business metrics: {@code blood.requests.pending} per priority, recounted on
+ * a fixed schedule so scrapes never reach the database, and {@code blood.requests.fulfilment},
+ * the time from a request being made to it being marked fulfilled.
+ */
+@Component
+public class RequestMetrics {
+
+    @Autowired
+    private BloodRequestRepository requestRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Pending requests per priority, indexed by ordinal
+    private final AtomicLongArray pending = new AtomicLongArray(BloodRequest.PriorityLevel.values().length);
+
+    @PostConstruct
+    void registerMetrics() {
+        for (BloodRequest.PriorityLevel priority : BloodRequest.PriorityLevel.values()) {
+            Gauge.builder("blood.requests.pending", pending, counts -> counts.get(priority.ordinal()))
+                    .tag("priority", priority.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${request.metrics.pending-refresh-ms:15000}")
+    public void countPending() {
+        for (BloodRequest.PriorityLevel priority : BloodRequest.PriorityLevel.values()) {
+            pending.set(priority.ordinal(),
+                    requestRepository.countByStatusAndPriority(BloodRequest.RequestStatus.PENDING, priority));
+        }
+    }
+
+    /** Records the request's time to fulfilment once the surrounding transaction commits. */
+    public void fulfilled(BloodRequest request) {
+        if (request.getRequestDate() == null) {
+            return;
+        }
+        Duration elapsed = Duration.between(request.getRequestDate(), LocalDateTime.now());
+        Timer timer = Timer.builder("blood.requests.fulfilment")
+                .tag("priority", request.getPriority().name())
+                .register(meterRegistry);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            timer.record(elapsed);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                timer.record(elapsed);
+            }
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package com.bloodbank.request.service;
+
+import com.bloodbank.request.model.BloodRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Pending requests waiting for stock, one binary heap per blood group, ordered like
+ * {@link EmergencyRequestProcessor#ALLOCATION_ORDER}: priority, then deadline, then arrival.
+ * Removal is lazy: a removed request stays in its heap until it surfaces and is skipped,
+ * so adding, removing and selecting are all O(log n). The heaps are swept once removed
+ * entries outnumber the live ones. Not thread-safe; callers lock.
+ */
+public class RequestQueue {
+
+    static final Comparator<Entry> ORDER = Comparator
+            .comparingInt(Entry::priority)
+            .thenComparingLong(Entry::deadline)
+            .thenComparingLong(Entry::arrival)
+            .thenComparingLong(Entry::id);
+
+    private final Map<String, PriorityQueue<Entry>> heaps = new HashMap<>();
+    private final Map<Long, Entry> live = new HashMap<>();
+    private final List<Entry> skipped = new ArrayList<>();
+    private int stale;
+
+    /** Queues a request, replacing any earlier entry for the same id. */
+    public void add(BloodRequest request) {
+        add(new Entry(request.getId(), request.getBloodGroup(), request.getPriority().ordinal(),
+                epochMillis(request.getRequiredBy(), Long.MAX_VALUE), epochMillis(request.getRequestDate(), 0),
+                request.getUnitsRequired(), request.getReservationKey()));
+    }
+
+    public void add(Entry entry) {
+        if (live.put(entry.id(), entry) != null) {
+            staled();
+        }
+        heaps.computeIfAbsent(entry.bloodGroup(), group -> new PriorityQueue<>(ORDER)).add(entry);
+    }
+
+    public boolean remove(long id) {
+        if (live.remove(id) == null) {
+            return false;
+        }
+        staled();
+        return true;
+    }
+
+    public int size() {
+        return live.size();
+    }
+
+    /**
+     * Takes the requests that {@code available} units of {@code bloodGroup} should go to, in
+     * order. A request too large for what is left keeps its place and is passed over only for
+     * smaller ones of its own priority; nothing of a lower priority is taken behind it, so the
+     * units stay in stock and build up towards it instead of being handed out a few at a time
+     * below it. At most {@code maxScan} requests are looked at per call.
+     */
+    public List<Entry> select(String bloodGroup, int available, int maxScan) {
+        PriorityQueue<Entry> heap = heaps.get(bloodGroup);
+        if (heap == null || available <= 0) {
+            return List.of();
+        }
+        List<Entry> selected = new ArrayList<>();
+        int remaining = available;
+        int scanned = 0;
+        int unmetPriority = Integer.MAX_VALUE;
+        Entry entry;
+        while (remaining > 0 && scanned < maxScan && (entry = heap.poll()) != null) {
+            if (live.get(entry.id()) != entry) {
+                stale--;
+                continue;
+            }
+            if (entry.priority() > unmetPriority) {
+                // The heap is in priority order, so everything left is below the unmet request too
+                skipped.add(entry);
+                break;
+            }
+            scanned++;
+            if (entry.units() <= remaining) {
+                remaining -= entry.units();
+                live.remove(entry.id());
+                selected.add(entry);
+            } else {
+                skipped.add(entry);
+                unmetPriority = Math.min(unmetPriority, entry.priority());
+            }
+        }
+        heap.addAll(skipped);
+        skipped.clear();
+        return selected;
+    }
+
+    private void staled() {
+        if (++stale > live.size() + 1024) {
+            for (PriorityQueue<Entry> heap : heaps.values()) {
+                heap.removeIf(entry -> live.get(entry.id()) != entry);
+            }
+            stale = 0;
+        }
+    }
+
+    /** Local times are in this JVM's zone, as everywhere else in the service, so deadlines compare with the wall clock. */
+    private static long epochMillis(LocalDateTime time, long fallback) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : fallback;
+    }
+
+    /** A queued request; {@code priority} is the {@link BloodRequest.PriorityLevel} ordinal, lower first. */
+    public record Entry(long id, String bloodGroup, int priority, long deadline, long arrival, int units,
+                        String reservationKey) {
+    }
+}
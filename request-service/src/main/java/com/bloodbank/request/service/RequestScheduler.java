@@ -0,0 +1,205 @@
+package com.bloodbank.request.service;
+
+import com.bloodbank.request.dto.ReservationResponse;
+import com.bloodbank.request.model.BloodRequest;
+import com.bloodbank.request.resilience.InventoryCallPolicy;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands stock to pending requests that hold no units yet, as soon as it becomes available.
+ * The queue is loaded from the database on startup and kept current as requests are created
+ * and change status. Whenever the inventory view reports a new level for a group, the
+ * requests it can now cover are picked in priority and deadline order and their units are
+ * reserved, as if the stock had been there when they were made.
+ * <p>
+ * Picking is done in memory under a lock; the reservations are made afterwards without it.
+ * Units already being reserved are held back from the next pick, so a level reported before
+ * those reservations land is not handed out twice.
+ */
+@Component
+public class RequestScheduler {
+
+    private static final String LOAD_SQL =
+            "select id, blood_group, priority, required_by, request_date, units_required, reservation_key from blood_requests " +
+            "where status = 'PENDING' and reservation_id is null";
+
+    private static final String ASSIGN_SQL =
+            "update blood_requests set reservation_id = ?, remarks = null " +
+            "where id = ? and status = 'PENDING' and reservation_id is null";
+
+    private final RequestQueue queue = new RequestQueue();
+    private final Map<String, Integer> reserving = new HashMap<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryView inventoryView;
+
+    @Autowired
+    @Qualifier("inventoryWebClient")
+    private WebClient inventoryWebClient;
+
+    @Autowired
+    private InventoryCallPolicy inventoryCallPolicy;
+
+    @Autowired
+    private Scheduler blockingScheduler;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${request.scheduler.enabled:true}")
+    private boolean enabled;
+
+    @Value("${request.scheduler.max-scan:256}")
+    private int maxScan;
+
+    @Value("${request.scheduler.concurrency:8}")
+    private int concurrency;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            Timestamp requiredBy = rs.getTimestamp(4);
+            Timestamp requestDate = rs.getTimestamp(5);
+            RequestQueue.Entry entry = new RequestQueue.Entry(rs.getLong(1), rs.getString(2),
+                    BloodRequest.PriorityLevel.valueOf(rs.getString(3)).ordinal(),
+                    requiredBy != null ? epochMillis(requiredBy) : Long.MAX_VALUE,
+                    requestDate != null ? epochMillis(requestDate) : 0,
+                    rs.getInt(6), rs.getString(7));
+            synchronized (this) {
+                queue.add(entry);
+            }
+        });
+        Gauge.builder("request.scheduler.queued", this, RequestScheduler::size).register(meterRegistry);
+        inventoryView.addListener(this::stockChanged);
+        sweep();
+    }
+
+    /** Queues a newly saved request if it is still waiting for units. */
+    public void enqueue(BloodRequest request) {
+        if (enabled && request.getStatus() == BloodRequest.RequestStatus.PENDING && request.getReservationId() == null) {
+            synchronized (this) {
+                queue.add(request);
+            }
+        }
+    }
+
+    /** Drops a request that no longer needs scheduling, such as one that changed status. */
+    public void dequeue(Long id) {
+        synchronized (this) {
+            queue.remove(id);
+        }
+    }
+
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    /** Catches up on levels reported while nothing could be picked, such as while a reservation failed. */
+    @Scheduled(fixedDelayString = "${request.scheduler.sweep-interval-ms:5000}")
+    public void sweep() {
+        if (enabled && inventoryView.isLive()) {
+            inventoryView.availableByGroup().forEach(this::stockChanged);
+        }
+    }
+
+    void stockChanged(String bloodGroup, Integer available) {
+        if (available == null || available <= 0) {
+            return;
+        }
+        List<RequestQueue.Entry> picked;
+        synchronized (this) {
+            int free = available - reserving.getOrDefault(bloodGroup, 0);
+            picked = queue.select(bloodGroup, free, maxScan);
+            for (RequestQueue.Entry entry : picked) {
+                reserving.merge(bloodGroup, entry.units(), Integer::sum);
+            }
+        }
+        if (!picked.isEmpty()) {
+            Flux.fromIterable(picked)
+                    .flatMap(this::reserve, concurrency)
+                    .subscribe();
+        }
+    }
+
+    private Mono<Void> reserve(RequestQueue.Entry entry) {
+        Map<String, Long> body = new HashMap<>();
+        body.put("quantity", (long) entry.units());
+        if (entry.deadline() != Long.MAX_VALUE) {
+            long ttl = Duration.ofMillis(entry.deadline() - System.currentTimeMillis()).getSeconds();
+            if (ttl > 0) {
+                body.put("ttlSeconds", ttl);
+            }
+        }
+        return inventoryCallPolicy.keyedWrite(inventoryWebClient.post()
+                        .uri("/api/inventory/{bloodGroup}/reserve", entry.bloodGroup())
+                        .header(InventoryCallPolicy.IDEMPOTENCY_KEY, entry.reservationKey() + "-" + entry.bloodGroup())
+                        .bodyValue(body)
+                        .retrieve()
+                        .bodyToMono(ReservationResponse.class))
+                .flatMap(reservation -> Mono.fromCallable(() -> assign(entry, reservation.getId()))
+                        .subscribeOn(blockingScheduler))
+                .doOnError(e -> {
+                    // Lost the units to someone else or could not reach inventory: wait for the next level
+                    synchronized (this) {
+                        queue.add(entry);
+                    }
+                })
+                .onErrorResume(e -> Mono.empty())
+                .doFinally(signal -> {
+                    synchronized (this) {
+                        reserving.merge(entry.bloodGroup(), -entry.units(), Integer::sum);
+                    }
+                })
+                .then();
+    }
+
+    private boolean assign(RequestQueue.Entry entry, Long reservationId) {
+        if (jdbcTemplate.update(ASSIGN_SQL, reservationId, entry.id()) == 0) {
+            // The request was cancelled or decided while its units were being reserved; a hold
+            // that cannot be released here is returned by the inventory reaper once it expires
+            inventoryCallPolicy.write(inventoryWebClient.post()
+                            .uri("/api/inventory/reservations/{id}/release", reservationId)
+                            .retrieve()
+                            .toBodilessEntity())
+                    .subscribe(response -> { }, e -> { });
+            return false;
+        }
+        cacheManager.getCache("requests").evict(entry.id());
+        return true;
+    }
+
+    private static long epochMillis(Timestamp timestamp) {
+        // Same clock as RequestQueue: the stored local time in this JVM's zone, as an instant
+        return timestamp.toLocalDateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
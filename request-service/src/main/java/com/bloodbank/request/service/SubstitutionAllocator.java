@@ -0,0 +1,126 @@
+package com.bloodbank.request.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Picks the blood group a request's units are drawn from when its own group cannot cover
+ * it. ABO/Rh compatibility is an 8x8 matrix held as one bitmask of donor groups per
+ * recipient group, and stock is an {@code int[]} indexed like {@link #BLOOD_GROUPS}, so
+ * choosing a group allocates nothing.
+ * <p>
+ * The recipient's own group is always used when it has enough. Otherwise the substitute
+ * left with the most headroom is chosen, where headroom is what remains after this request
+ * and the demand already known for the group itself, divided by the number of recipient
+ * groups that can take it. That keeps universal groups such as O- for when nothing else
+ * will do.
+ */
+@Component
+public class SubstitutionAllocator {
+
+    public static final List<String> BLOOD_GROUPS = List.of("A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-");
+
+    public static final int NONE = -1;
+
+    // Donor groups each recipient group can receive, as bits indexed like BLOOD_GROUPS
+    private static final int[] DONORS = {
+            mask("A+", "A-", "O+", "O-"),
+            mask("A-", "O-"),
+            mask("B+", "B-", "O+", "O-"),
+            mask("B-", "O-"),
+            mask("AB+", "AB-", "A+", "A-", "B+", "B-", "O+", "O-"),
+            mask("AB-", "A-", "B-", "O-"),
+            mask("O+", "O-"),
+            mask("O-")
+    };
+
+    // How many recipient groups can take each donor group: AB+ only itself, O- everyone
+    private static final int[] RECIPIENTS = new int[BLOOD_GROUPS.size()];
+
+    static {
+        for (int donors : DONORS) {
+            for (int group = 0; group < RECIPIENTS.length; group++) {
+                if ((donors & 1 << group) != 0) {
+                    RECIPIENTS[group]++;
+                }
+            }
+        }
+    }
+
+    public static int indexOf(String bloodGroup) {
+        int group = BLOOD_GROUPS.indexOf(bloodGroup);
+        if (group < 0) {
+            throw new IllegalArgumentException("Invalid blood group: " + bloodGroup);
+        }
+        return group;
+    }
+
+    /**
+     * The group {@code units} for a {@code recipient} should come from given {@code stock},
+     * or {@link #NONE} if no compatible group has enough.
+     */
+    public int choose(int recipient, int units, int[] stock) {
+        return choose(recipient, units, stock, null);
+    }
+
+    /**
+     * Assigns a group to each of {@code count} requests, taken in the order given, drawing the
+     * units from {@code stock} as it goes. {@code assigned[i]} receives the group for request
+     * {@code i}, or {@link #NONE}; the number of requests assigned is returned. Demand from
+     * requests not yet assigned counts against their own group, so an earlier request is only
+     * given a substitute that later requests of that group do not need as much.
+     */
+    public int allocate(int[] recipients, int[] units, int count, int[] stock, int[] assigned) {
+        // Own-group demand still to be met; the one allocation per batch, none per request
+        int[] demand = new int[BLOOD_GROUPS.size()];
+        for (int i = 0; i < count; i++) {
+            demand[recipients[i]] += units[i];
+        }
+        int satisfied = 0;
+        for (int i = 0; i < count; i++) {
+            int recipient = recipients[i];
+            demand[recipient] -= units[i];
+            int group = choose(recipient, units[i], stock, demand);
+            assigned[i] = group;
+            if (group != NONE) {
+                stock[group] -= units[i];
+                satisfied++;
+            }
+        }
+        return satisfied;
+    }
+
+    private static int choose(int recipient, int units, int[] stock, int[] demand) {
+        if (stock[recipient] >= units) {
+            return recipient;
+        }
+        int best = NONE;
+        long bestScore = Long.MIN_VALUE;
+        int donors = DONORS[recipient] & ~(1 << recipient);
+        while (donors != 0) {
+            int group = Integer.numberOfTrailingZeros(donors);
+            donors &= donors - 1;
+            if (stock[group] < units) {
+                continue;
+            }
+            long headroom = stock[group] - units - (demand != null ? demand[group] : 0);
+            // Compared as headroom / recipients without dividing: scaled by the least common
+            // multiple of the possible recipient counts (1, 2, 4, 8)
+            long score = headroom * (8 / RECIPIENTS[group]);
+            if (score > bestScore) {
+                best = group;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private static int mask(String... groups) {
+        int mask = 0;
+        for (String group : groups) {
+            mask |= 1 << BLOOD_GROUPS.indexOf(group);
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,15 @@
+CREATE TABLE blood_requests (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    patient_name   VARCHAR(255) NOT NULL,
+    blood_group    VARCHAR(255) NOT NULL,
+    units_required INT          NOT NULL,
+    hospital_name  VARCHAR(255) NOT NULL,
+    contact_number VARCHAR(255) NOT NULL,
+    request_date   DATETIME(6)  NOT NULL,
+    required_by    DATETIME(6),
+    priority       VARCHAR(32)  NOT NULL,
+    status         VARCHAR(32)  NOT NULL,
+    remarks        VARCHAR(255),
+    reservation_id BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,11 @@
+-- findByStatus and findByPriorityAndStatus, with pending work already in deadline order
+CREATE INDEX idx_requests_status_priority_required_by ON blood_requests (status, priority, required_by);
+
+-- findByBloodGroupAndStatus
+CREATE INDEX idx_requests_blood_group_status ON blood_requests (blood_group, status);
+
+-- findByRequestDateBetween
+CREATE INDEX idx_requests_request_date ON blood_requests (request_date);
+
+-- findByHospitalName
+CREATE INDEX idx_requests_hospital_name ON blood_requests (hospital_name);
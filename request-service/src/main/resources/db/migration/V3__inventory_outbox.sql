@@ -0,0 +1,19 @@
+-- Inventory changes recorded with the request status change that causes them, sent by InventoryOutboxRelay
+CREATE TABLE inventory_outbox (
+    id              BIGINT        NOT NULL AUTO_INCREMENT,
+    request_id      BIGINT        NOT NULL,
+    operation       VARCHAR(32)   NOT NULL,
+    blood_group     VARCHAR(255)  NOT NULL,
+    units           INT           NOT NULL,
+    reservation_id  BIGINT,
+    idempotency_key VARCHAR(100)  NOT NULL,
+    status          VARCHAR(32)   NOT NULL,
+    attempts        INT           NOT NULL,
+    next_attempt_at DATETIME(6)   NOT NULL,
+    last_error      VARCHAR(1000),
+    created_at      DATETIME(6)   NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Relay: pending entries that are due, oldest first
+CREATE INDEX idx_outbox_status_next_attempt_at ON inventory_outbox (status, next_attempt_at, id);
@@ -0,0 +1,2 @@
+-- Compatible group a request's units were reserved from when its own group was short
+ALTER TABLE blood_requests ADD COLUMN allocated_group VARCHAR(8) NULL;
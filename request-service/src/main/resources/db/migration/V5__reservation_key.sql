@@ -0,0 +1,3 @@
+-- Idempotency-Key every reservation for a request is made under, so a hold whose response was lost is found again
+ALTER TABLE blood_requests ADD COLUMN reservation_key VARCHAR(100) NULL;
+UPDATE blood_requests SET reservation_key = CONCAT('request-', id, '-reserve') WHERE reservation_key IS NULL;